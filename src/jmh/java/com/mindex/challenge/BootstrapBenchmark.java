@@ -0,0 +1,120 @@
+package com.mindex.challenge;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.snapshot.SnapshotWriter;
+
+// Start-up load of the same org chart from the JSON resource and from the binary snapshot, into an empty database
+// The snapshot is written from what the JSON load stored, so both hold exactly the same employees
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BootstrapBenchmark {
+
+    @Param({"10000", "100000"})
+    private int employees;
+
+    private ConfigurableApplicationContext context;
+    private DataBootstrap dataBootstrap;
+    private File json;
+    private Resource jsonResource;
+    private Path snapshot;
+
+    @Setup
+    public void setup() throws IOException {
+        context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.com.mindex=WARN");
+        dataBootstrap = context.getBean(DataBootstrap.class);
+
+        json = File.createTempFile("employees", ".json");
+        context.getBean(ObjectMapper.class).writeValue(json, flatten(OrgCharts.build(OrgCharts.Shape.BALANCED, employees)));
+        jsonResource = new FileSystemResource(json);
+
+        dataBootstrap.deleteAll();
+        dataBootstrap.load(jsonResource);
+        snapshot = Files.createTempFile("employees", ".snapshot");
+        context.getBean(SnapshotWriter.class).write(snapshot);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyDatabase() {
+        dataBootstrap.deleteAll();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(json.toPath());
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public long loadJson() {
+        return dataBootstrap.load(jsonResource);
+    }
+
+    @Benchmark
+    public long loadSnapshot() throws IOException {
+        return dataBootstrap.loadSnapshot(snapshot);
+    }
+
+    // one document per employee, directReports as id-only references - the shape of employee_database.json
+    private static List<Employee> flatten(Employee root) {
+        List<Employee> flattened = new ArrayList<Employee>();
+        Deque<Employee> pending = new ArrayDeque<Employee>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Employee employee = pending.poll();
+            List<Employee> directReports = new ArrayList<Employee>();
+            for (Employee report : employee.getDirectReports()) {
+                Employee directReport = new Employee();
+                directReport.setEmployeeId(report.getEmployeeId());
+                directReports.add(directReport);
+                pending.add(report);
+            }
+
+            Employee document = new Employee();
+            document.setEmployeeId(employee.getEmployeeId());
+            document.setFirstName(employee.getFirstName());
+            document.setLastName(employee.getLastName());
+            document.setPosition(employee.getPosition());
+            document.setDepartment(employee.getDepartment());
+            document.setDirectReports(directReports.isEmpty() ? null : directReports);
+            flattened.add(document);
+        }
+        return flattened;
+    }
+}
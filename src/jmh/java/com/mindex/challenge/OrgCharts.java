@@ -0,0 +1,56 @@
+package com.mindex.challenge;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mindex.challenge.data.Employee;
+
+// Synthetic, fully hydrated org charts for the benchmarks - every employee reachable from the returned root
+public final class OrgCharts {
+
+    public enum Shape {
+        // one manager, everybody else a direct report
+        WIDE,
+        // a single chain of managers
+        DEEP,
+        // every manager has BALANCED_FAN_OUT direct reports
+        BALANCED
+    }
+
+    public static final int BALANCED_FAN_OUT = 4;
+
+    private OrgCharts() {
+    }
+
+    // root plus employees - 1 reports in the given shape
+    public static Employee build(Shape shape, int employees) {
+        List<Employee> all = new ArrayList<Employee>(employees);
+        for (int i = 0; i < employees; i++) {
+            Employee employee = new Employee();
+            employee.setEmployeeId("employee-" + i);
+            employee.setFirstName("First" + i);
+            employee.setLastName("Last" + i);
+            employee.setPosition("Developer");
+            employee.setDepartment("Engineering");
+            employee.setDirectReports(new ArrayList<Employee>());
+            all.add(employee);
+        }
+
+        for (int i = 1; i < employees; i++) {
+            int manager;
+            switch (shape) {
+                case WIDE:
+                    manager = 0;
+                    break;
+                case DEEP:
+                    manager = i - 1;
+                    break;
+                default:
+                    manager = (i - 1) / BALANCED_FAN_OUT;
+            }
+            all.get(manager).getDirectReports().add(all.get(i));
+        }
+
+        return all.get(0);
+    }
+}
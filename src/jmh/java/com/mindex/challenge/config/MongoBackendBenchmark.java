@@ -0,0 +1,109 @@
+package com.mindex.challenge.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.h2.mvstore.MVStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+
+import de.bwaldvogel.mongo.MongoBackend;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+// Write and read cost of the two embedded backends, with the same store settings MongoConfig uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MongoBackendBenchmark {
+
+    private static final int EMPLOYEES = 5000;
+    private static final int BATCH_SIZE = 500;
+
+    @Param({ "memory", "h2" })
+    private String backend;
+
+    private File storeFile;
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoCollection<Document> employees;
+    private int nextEmployee;
+
+    @Setup
+    public void setup() throws IOException {
+        MongoBackend mongoBackend;
+        if ("h2".equals(backend)) {
+            storeFile = Files.createTempFile("benchmark", ".mv.db").toFile();
+            MVStore mvStore = new MVStore.Builder()
+                    .fileName(storeFile.getPath())
+                    .cacheSize(16)
+                    .open();
+            mvStore.setAutoCommitDelay(1000);
+            mongoBackend = new H2Backend(mvStore);
+        } else {
+            mongoBackend = new MemoryBackend();
+        }
+
+        mongoServer = new MongoServer(mongoBackend);
+        mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb:/" + mongoServer.getLocalAddress());
+        employees = mongoClient.getDatabase("benchmark").getCollection("Employee");
+        while (nextEmployee < EMPLOYEES) {
+            insertBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+        if (storeFile != null) {
+            storeFile.delete();
+        }
+    }
+
+    // one bulk insert of BATCH_SIZE new employees
+    @Benchmark
+    public int insertBatch() {
+        List<Document> batch = new ArrayList<Document>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++, nextEmployee++) {
+            batch.add(new Document("_id", "employee-" + nextEmployee)
+                    .append("firstName", "Bench")
+                    .append("lastName", String.valueOf(nextEmployee))
+                    .append("department", "Engineering"));
+        }
+        employees.insertMany(batch);
+        return batch.size();
+    }
+
+    // one lookup by id among the employees inserted so far
+    @Benchmark
+    public Document findById() {
+        return employees.find(Filters.eq("_id", "employee-" + ThreadLocalRandom.current().nextInt(EMPLOYEES))).first();
+    }
+}
@@ -0,0 +1,71 @@
+package com.mindex.challenge.dao;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeSummary;
+
+// Employee reads against the embedded server, seeded with the bootstrap employee_database.json
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+    // John Lennon - four reports over two levels
+    private static final String MANAGER_ID = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    // Paul McCartney - no reports
+    private static final String LEAF_ID = "b7839309-3348-463b-a7e3-5de1c168beb3";
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.com.mindex=WARN");
+        employeeRepository = context.getBean(EmployeeRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // one document
+    @Benchmark
+    public Employee findLeafByEmployeeId() {
+        return employeeRepository.findByEmployeeId(LEAF_ID);
+    }
+
+    // the manager plus one DBRef lookup per employee below it
+    @Benchmark
+    public Employee findManagerByEmployeeId() {
+        return employeeRepository.findByEmployeeId(MANAGER_ID);
+    }
+
+    // baseline - the manager's document alone, directReports left as ids
+    @Benchmark
+    public EmployeeSummary findManagerSummaryByEmployeeId() {
+        return employeeRepository.findSummaryByEmployeeId(MANAGER_ID);
+    }
+}
@@ -0,0 +1,90 @@
+package com.mindex.challenge.data;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.OrgCharts;
+
+// Jackson (de)serialization of the response bodies, with the ObjectMapper defaults the application runs with
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    // a hydrated subtree the size of a typical department
+    private static final int EMPLOYEES = 85;
+
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+    private ReportingStructure reportingStructure;
+    private Compensation compensation;
+
+    private byte[] employeeJson;
+    private byte[] reportingStructureJson;
+    private byte[] compensationJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        // same builder Spring Boot configures its ObjectMapper from (JavaTimeModule, ISO dates)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        employee = OrgCharts.build(OrgCharts.Shape.BALANCED, EMPLOYEES);
+        reportingStructure = new ReportingStructure(employee, EMPLOYEES - 1);
+        compensation = new Compensation("compensation-0", new BigDecimal("125000.00"), LocalDate.of(2024, 1, 1),
+                Employee.fromEmployeeId(employee.getEmployeeId()));
+
+        employeeJson = objectMapper.writeValueAsBytes(employee);
+        reportingStructureJson = objectMapper.writeValueAsBytes(reportingStructure);
+        compensationJson = objectMapper.writeValueAsBytes(compensation);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws IOException {
+        return objectMapper.readValue(employeeJson, Employee.class);
+    }
+
+    @Benchmark
+    public byte[] serializeReportingStructure() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reportingStructure);
+    }
+
+    @Benchmark
+    public ReportingStructure deserializeReportingStructure() throws IOException {
+        return objectMapper.readValue(reportingStructureJson, ReportingStructure.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCompensation() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(compensation);
+    }
+
+    @Benchmark
+    public Compensation deserializeCompensation() throws IOException {
+        return objectMapper.readValue(compensationJson, Compensation.class);
+    }
+}
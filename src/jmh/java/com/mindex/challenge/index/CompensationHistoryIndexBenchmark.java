@@ -0,0 +1,72 @@
+package com.mindex.challenge.index;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mindex.challenge.data.CompensationHistory;
+
+// As-of lookups in the in-memory salary timelines - employees * changes rows, inserted in random date order
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompensationHistoryIndexBenchmark {
+
+    private static final long FIRST_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+
+    @Param({"10000"})
+    private int employees;
+
+    @Param({"100"})
+    private int changes;
+
+    private CompensationHistoryIndex compensationHistoryIndex;
+
+    @Setup
+    public void setup() {
+        BigDecimal salary = new BigDecimal("100000");
+        Random random = new Random(42);
+        List<Integer> changeOrder = new ArrayList<Integer>();
+        for (int change = 0; change < changes; change++) {
+            changeOrder.add(change);
+        }
+        Collections.shuffle(changeOrder, random);
+
+        compensationHistoryIndex = new CompensationHistoryIndex();
+        for (int change : changeOrder) {
+            for (int employee = 0; employee < employees; employee++) {
+                // one change per 30 day slot, so no two rows of an employee share a date
+                compensationHistoryIndex.put("employee-" + employee, null,
+                        LocalDate.ofEpochDay(FIRST_DAY + change * 30 + random.nextInt(30)), salary);
+            }
+        }
+    }
+
+    // a random employee on a random day, before, during or after their timeline
+    @Benchmark
+    public CompensationHistory findAsOf() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return compensationHistoryIndex.findAsOf("employee-" + random.nextInt(employees),
+                LocalDate.ofEpochDay(FIRST_DAY + random.nextInt(changes * 40)));
+    }
+}
@@ -0,0 +1,102 @@
+package com.mindex.challenge.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+
+// Concurrent compensation creates for distinct employees - the previous find-then-insert against the single insert
+// guarded by the unique index on employeeId. Each iteration times BATCH_SIZE creates per thread, every one of them for
+// an employee without a compensation yet.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = CompensationCreateBenchmark.BATCH_SIZE)
+@Measurement(iterations = 5, batchSize = CompensationCreateBenchmark.BATCH_SIZE)
+@Threads(8)
+@Fork(1)
+public class CompensationCreateBenchmark {
+
+    static final int BATCH_SIZE = 50;
+
+    @State(Scope.Benchmark)
+    public static class Application {
+        private ConfigurableApplicationContext context;
+        private EmployeeService employeeService;
+        private CompensationRepository compensationRepository;
+
+        @Setup
+        public void setup() {
+            context = new SpringApplicationBuilder(ChallengeApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--logging.level.com.mindex=WARN");
+            employeeService = context.getBean(EmployeeService.class);
+            compensationRepository = context.getBean(CompensationRepository.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Employees {
+        private Iterator<Employee> uncompensated;
+
+        // fresh employees for every iteration, created outside the measurement
+        @Setup(Level.Iteration)
+        public void setup(Application application) {
+            List<Employee> employees = new ArrayList<Employee>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Employee employee = new Employee();
+                employee.setFirstName("Throughput");
+                employee.setLastName(String.valueOf(i));
+                employees.add(employee);
+            }
+            application.employeeService.createBatch(employees, null);
+            uncompensated = employees.iterator();
+        }
+    }
+
+    @Benchmark
+    public Compensation checkThenInsert(Application application, Employees employees) {
+        Employee employee = employees.uncompensated.next();
+        if (application.compensationRepository.findByEmployee_EmployeeId(employee.getEmployeeId()) != null) {
+            return null;
+        }
+        return application.compensationRepository.insert(
+                new Compensation(UUID.randomUUID().toString(), new BigDecimal("50000"), LocalDate.now(), employee));
+    }
+
+    @Benchmark
+    public Compensation uniqueIndexInsert(Application application, Employees employees) {
+        return application.employeeService.createCompensation(
+                new Compensation(null, new BigDecimal("50000"), LocalDate.now(), employees.uncompensated.next()));
+    }
+}
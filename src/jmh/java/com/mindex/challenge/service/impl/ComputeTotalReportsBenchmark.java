@@ -0,0 +1,46 @@
+package com.mindex.challenge.service.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mindex.challenge.OrgCharts;
+import com.mindex.challenge.data.Employee;
+
+// Breadth First Search behind the BFS traversal strategy, over already hydrated trees (no database access)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComputeTotalReportsBenchmark {
+
+    @Param({"WIDE", "DEEP", "BALANCED"})
+    private OrgCharts.Shape shape;
+
+    @Param({"100", "10000"})
+    private int employees;
+
+    private Employee root;
+
+    @Setup
+    public void setup() {
+        root = OrgCharts.build(shape, employees);
+    }
+
+    @Benchmark
+    public int computeTotalReports() {
+        return EmployeeServiceImpl.computeTotalReports(root);
+    }
+}
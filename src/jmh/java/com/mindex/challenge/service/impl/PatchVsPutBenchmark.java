@@ -0,0 +1,95 @@
+package com.mindex.challenge.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.service.EmployeeService;
+
+// The same one-field change to a manager with a long report list, as a full replace (PUT) and as a $set of the one
+// field (PATCH)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchVsPutBenchmark {
+
+    @Param({"1000"})
+    private int reports;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private Employee manager;
+    private Map<String, Object> position;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.com.mindex=WARN");
+        employeeService = context.getBean(EmployeeService.class);
+
+        List<Employee> directReports = new ArrayList<Employee>(reports);
+        for (int i = 0; i < reports; i++) {
+            Employee report = new Employee();
+            report.setFirstName("Report");
+            report.setLastName(String.valueOf(i));
+            directReports.add(report);
+        }
+        employeeService.createBatch(directReports, null);
+
+        // what a PUT body carries - the reports as ids only
+        List<Employee> directReportIds = new ArrayList<Employee>(reports);
+        for (Employee report : directReports) {
+            Employee directReport = new Employee();
+            directReport.setEmployeeId(report.getEmployeeId());
+            directReportIds.add(directReport);
+        }
+        manager = new Employee();
+        manager.setFirstName("Large");
+        manager.setLastName("Team");
+        manager.setDirectReports(directReportIds);
+        manager = employeeService.create(manager);
+        manager.setDirectReports(directReportIds);
+
+        position = Collections.<String, Object>singletonMap("position", "Manager");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee put() {
+        return employeeService.update(manager);
+    }
+
+    @Benchmark
+    public EmployeeSummary patch() {
+        return employeeService.patch(manager.getEmployeeId(), position);
+    }
+}
@@ -1,39 +1,281 @@
 package com.mindex.challenge;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.dao.CompensationHistoryRepository;
+import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationHistory;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.index.CompensationHistoryIndex;
+import com.mindex.challenge.index.OrgChartConsistencyChecker;
+import com.mindex.challenge.index.OrgChartIndex;
+import com.mindex.challenge.snapshot.SnapshotReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
+@DependsOn({"mongoIndexInitializer", "versionStampListener"})
 public class DataBootstrap {
-    private static final String DATASTORE_LOCATION = "/static/employee_database.json";
+    private static final Logger LOG = LoggerFactory.getLogger(DataBootstrap.class);
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @Autowired
+    private CompensationHistoryRepository compensationHistoryRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Autowired
+    private CompensationHistoryIndex compensationHistoryIndex;
+
+    // Any Spring resource location, e.g. file:/data/employees.json for a large snapshot
+    @Value("${bootstrap.employees:classpath:/static/employee_database.json}")
+    private Resource employeesResource;
+
+    // Employees per insertMany
+    @Value("${bootstrap.batch-size:1000}")
+    private int batchSize;
+
+    // 1 writes on the calling thread, more hands batches to parallel writers
+    @Value("${bootstrap.writer-threads:1}")
+    private int writerThreads;
+
+    // Binary snapshot (see POST /admin/snapshot) - preferred over the JSON resource whenever the file exists
+    @Value("${bootstrap.snapshot:}")
+    private String snapshotLocation;
+
     @PostConstruct
     public void init() {
-        InputStream inputStream = this.getClass().getResourceAsStream(DATASTORE_LOCATION);
+        // a durable backend (mongo.backend=h2) comes back with its data - only the in-memory indexes need rebuilding
+        long storedEmployees = employeeRepository.count();
+        if (storedEmployees > 0) {
+            long start = System.currentTimeMillis();
+            OrgChartConsistencyChecker.load(mongoTemplate, orgChartIndex);
+            compensationHistoryIndex.load(mongoTemplate);
+            LOG.info("Database already holds [{}] employees, skipped bootstrap and rebuilt the in-memory indexes in [{}] ms",
+                    storedEmployees, System.currentTimeMillis() - start);
+            return;
+        }
 
-        Employee[] employees = null;
+        Path snapshot = getSnapshotPath();
+        if (snapshot != null && Files.isRegularFile(snapshot)) {
+            try {
+                loadSnapshot(snapshot);
+                return;
+            } catch (IOException | RuntimeException e) {
+                // a bad header is rejected before any record is inserted, but a truncated or corrupt body fails part way
+                // through - whatever made it in is dropped, so the JSON load starts from the same empty database
+                LOG.warn("Could not load snapshot [{}], falling back to [{}]", snapshot, employeesResource.getDescription(), e);
+                deleteAll();
+            }
+        }
+
+        load(employeesResource);
+    }
+
+    // Removes every employee, compensation and compensation history row along with the in-memory indexes built from them
+    public void deleteAll() {
+        mongoTemplate.remove(new Query(), Employee.class);
+        mongoTemplate.remove(new Query(), Compensation.class);
+        mongoTemplate.remove(new Query(), CompensationHistory.class);
+        orgChartIndex.clear();
+        compensationHistoryIndex.clear();
+    }
+
+    // Configured snapshot file, or null when snapshots are disabled
+    public Path getSnapshotPath() {
+        return snapshotLocation == null || snapshotLocation.trim().isEmpty() ? null : Paths.get(snapshotLocation.trim());
+    }
+
+    // Memory-maps a binary snapshot and inserts its employees, compensations and compensation history in bulk batches
+    public long loadSnapshot(Path snapshot) throws IOException {
+        long start = System.nanoTime();
+        AtomicLong employees = new AtomicLong();
+        AtomicLong compensations = new AtomicLong();
+
+        ExecutorService writers = writerThreads > 1 ? Executors.newFixedThreadPool(writerThreads) : null;
+        Semaphore batchesInFlight = new Semaphore(Math.max(writerThreads, 1) * 2);
+        List<Future<?>> pendingWrites = new ArrayList<Future<?>>();
 
         try {
-            employees = objectMapper.readValue(inputStream, Employee[].class);
+            new SnapshotReader(batchSize).read(snapshot, new SnapshotReader.Sink() {
+                @Override
+                public void employees(List<Employee> batch) {
+                    employees.addAndGet(batch.size());
+                    write(() -> employeeRepository.insert(batch), writers, batchesInFlight, pendingWrites);
+                }
+
+                @Override
+                public void compensations(List<Compensation> batch) {
+                    compensations.addAndGet(batch.size());
+                    write(() -> compensationRepository.insert(batch), writers, batchesInFlight, pendingWrites);
+                }
+
+                @Override
+                public void compensationHistory(List<CompensationHistory> batch) {
+                    write(() -> compensationHistoryRepository.insert(batch), writers, batchesInFlight, pendingWrites);
+                }
+            });
+
+            awaitWrites(pendingWrites);
+        } finally {
+            if (writers != null) {
+                // a failed read leaves writes in flight - they finish before the caller can clean up after them
+                writers.shutdown();
+                awaitTermination(writers);
+            }
+        }
+
+        rejectCycles(snapshot.toString());
+
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1000000, 1);
+        LOG.info("Bootstrapped [{}] employees and [{}] compensations from snapshot [{}] in [{}] ms ({} employees/s, batch size {}, {} writer threads)",
+                employees.get(), compensations.get(), snapshot, elapsedMillis, employees.get() * 1000 / elapsedMillis,
+                batchSize, Math.max(writerThreads, 1));
+
+        return employees.get();
+    }
+
+    // Stream-parses a JSON array of employees and inserts them in bulk batches
+    // Only the batches in flight are ever on the heap, never the whole array
+    public long load(Resource resource) {
+        long start = System.nanoTime();
+        long count = 0;
+
+        ExecutorService writers = writerThreads > 1 ? Executors.newFixedThreadPool(writerThreads) : null;
+        // bounds the batches waiting for a writer, so a fast parser can't pull the whole file into memory
+        Semaphore batchesInFlight = new Semaphore(Math.max(writerThreads, 1) * 2);
+        List<Future<?>> pendingWrites = new ArrayList<Future<?>>();
+
+        try (InputStream inputStream = resource.getInputStream();
+             JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Expected a JSON array of employees in " + resource);
+            }
+
+            List<Employee> batch = new ArrayList<Employee>(batchSize);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                batch.add(objectMapper.readValue(parser, Employee.class));
+                count++;
+
+                if (batch.size() == batchSize) {
+                    List<Employee> fullBatch = batch;
+                    write(() -> employeeRepository.insert(fullBatch), writers, batchesInFlight, pendingWrites);
+                    batch = new ArrayList<Employee>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<Employee> lastBatch = batch;
+                write(() -> employeeRepository.insert(lastBatch), writers, batchesInFlight, pendingWrites);
+            }
+
+            awaitWrites(pendingWrites);
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            if (writers != null) {
+                // as in loadSnapshot - a failed parse leaves writes in flight, they finish before the caller cleans up
+                writers.shutdown();
+                awaitTermination(writers);
+            }
         }
 
-        for (Employee employee : employees) {
-            employeeRepository.insert(employee);
+        rejectCycles(resource.getDescription());
+
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1000000, 1);
+        LOG.info("Bootstrapped [{}] employees from [{}] in [{}] ms ({} employees/s, batch size {}, {} writer threads)",
+                count, resource.getDescription(), elapsedMillis, count * 1000 / elapsedMillis, batchSize, Math.max(writerThreads, 1));
+
+        return count;
+    }
+
+    // Bulk inserts skip the per-write hierarchy check, so the loaded org chart is checked as a whole once it is in -
+    // a snapshot that fails here falls back to the JSON resource like any other bad snapshot
+    private void rejectCycles(String source) {
+        String employeeId = orgChartIndex.findCycle();
+        if (employeeId != null) {
+            throw new IllegalStateException("Employee " + employeeId + " in " + source + " is part of a management cycle");
+        }
+    }
+
+    private void write(Runnable insert, ExecutorService writers, Semaphore batchesInFlight, List<Future<?>> pendingWrites) {
+        if (writers == null) {
+            insert.run();
+            return;
+        }
+
+        try {
+            batchesInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        pendingWrites.add(writers.submit(() -> {
+            try {
+                insert.run();
+            } finally {
+                batchesInFlight.release();
+            }
+        }));
+    }
+
+    private static void awaitTermination(ExecutorService writers) {
+        try {
+            while (!writers.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOG.debug("Waiting for bootstrap writes in flight");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitWrites(List<Future<?>> pendingWrites) {
+        try {
+            for (Future<?> pendingWrite : pendingWrites) {
+                pendingWrite.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
         }
     }
 }
@@ -0,0 +1,117 @@
+package com.mindex.challenge.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.CacheStatistics;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.index.OrgChartIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded read-through cache in front of EmployeeRepository.findHierarchyByEmployeeId
+// Cached employees are hydrated, so each entry embeds its whole subtree - a write to an employee
+// invalidates the employee and every manager above them (see EmployeeCacheListener).
+// Misses load outside the cache: a LoadingCache runs its loader inside ConcurrentHashMap.compute, whose monitor would
+// pin a virtual thread to its carrier for every Mongo round trip of the hierarchy load. Two concurrent misses for the
+// same employee may therefore both load it.
+@Component
+public class EmployeeCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmployeeCache.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Value("${employee.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    // Upper bound on staleness for writes that bypass MongoTemplate events
+    @Value("${employee.cache.expire-after-write-ms:60000}")
+    private long expireAfterWriteMillis;
+
+    private Cache<String, Employee> employees;
+
+    // bumped before every invalidation - a load that saw it change may hold data from before the write
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        employees = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    // Cached employee, loaded on a miss - null when the id does not exist
+    public Employee get(String employeeId) {
+        Employee employee = employees.getIfPresent(employeeId);
+        if (employee != null) {
+            return employee;
+        }
+
+        long invalidationsBefore = invalidations.get();
+        long start = System.nanoTime();
+        employee = employeeRepository.findHierarchyByEmployeeId(employeeId);
+        loadNanos.addAndGet(System.nanoTime() - start);
+        loadCount.incrementAndGet();
+
+        // unknown ids are never stored - a miss for a bad id always goes to Mongo
+        if (employee != null) {
+            employees.put(employeeId, employee);
+            // a write during the load may have invalidated before the put - drop this copy rather than serve it stale
+            if (invalidations.get() != invalidationsBefore) {
+                employees.asMap().remove(employeeId, employee);
+            }
+        }
+        return employee;
+    }
+
+    // Drops the employee and every manager whose cached subtree contains them
+    public void invalidate(String employeeId) {
+        invalidations.incrementAndGet();
+        List<String> managerIds = orgChartIndex.getManagers(employeeId);
+        employees.invalidate(employeeId);
+        employees.invalidateAll(managerIds);
+
+        LOG.debug("Invalidated cached employee [{}] and [{}] managers", employeeId, managerIds.size());
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        employees.invalidateAll();
+    }
+
+    public CacheStatistics getStatistics() {
+        CacheStats stats = employees.stats();
+
+        CacheStatistics statistics = new CacheStatistics();
+        statistics.setSize(employees.estimatedSize());
+        statistics.setMaximumSize(maximumSize);
+        statistics.setHitCount(stats.hitCount());
+        statistics.setMissCount(stats.missCount());
+        statistics.setHitRate(stats.hitRate());
+        statistics.setEvictionCount(stats.evictionCount());
+        // loads happen outside the cache, so Caffeine never sees them
+        long loads = loadCount.get();
+        statistics.setLoadCount(loads);
+        statistics.setAverageLoadPenaltyMillis(loads == 0 ? 0 : loadNanos.get() / (double) loads / 1000000);
+
+        return statistics;
+    }
+}
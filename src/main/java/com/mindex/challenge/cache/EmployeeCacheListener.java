@@ -0,0 +1,22 @@
+package com.mindex.challenge.cache;
+
+import com.mindex.challenge.data.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+// Invalidates cached employees after every Employee write that goes through MongoTemplate
+// (create, batch create, update and repository saves alike)
+@Component
+public class EmployeeCacheListener extends AbstractMongoEventListener<Employee> {
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Employee> event) {
+        // managers come from the org chart index, whose parent links are unaffected by this employee's own write
+        employeeCache.invalidate(event.getSource().getEmployeeId());
+    }
+}
@@ -0,0 +1,73 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.util.TypeInformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+// Resolving a directReports DBRef back to an employee already being read doesn't recurse - Spring Data hands back the
+// instance from further up the path - but it leaves a cycle in the object graph, and anything walking it afterwards
+// (Jackson writing the response, a report count) would then overflow the stack
+// Every top level read (findByEmployeeId, findAll, a Compensation's employee) cuts such a back reference to an
+// employeeId-only stub, the way EmployeeRepositoryImpl.findHierarchyByEmployeeId does
+class CycleSafeMongoConverter extends MappingMongoConverter {
+
+    CycleSafeMongoConverter(DbRefResolver dbRefResolver,
+                            MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext) {
+        super(dbRefResolver, mappingContext);
+    }
+
+    // Only top level documents come through here, nested DBRefs are read with the converter's own context
+    @Override
+    protected <S> S read(TypeInformation<S> type, Bson bson) {
+        S result = super.read(type, bson);
+        if (result instanceof Employee) {
+            breakCycles((Employee) result);
+        } else if (result instanceof Compensation) {
+            breakCycles(((Compensation) result).getEmployee());
+        }
+        return result;
+    }
+
+    // Breadth First, by identity - the graph is a tree apart from the back references, so an employee met a second
+    // time can only be one of them
+    static void breakCycles(Employee root) {
+        if (root == null) {
+            return;
+        }
+
+        Set<Employee> visited = Collections.newSetFromMap(new IdentityHashMap<Employee, Boolean>());
+        visited.add(root);
+        List<Employee> queue = new ArrayList<Employee>();
+        queue.add(root);
+        for (int head = 0; head < queue.size(); head++) {
+            List<Employee> directReports = queue.get(head).getDirectReports();
+            if (directReports == null) {
+                continue;
+            }
+
+            for (int i = 0; i < directReports.size(); i++) {
+                Employee report = directReports.get(i);
+                if (report == null) {
+                    continue;
+                }
+                if (visited.add(report)) {
+                    queue.add(report);
+                } else {
+                    directReports.set(i, Employee.fromEmployeeId(report.getEmployeeId()));
+                }
+            }
+        }
+    }
+}
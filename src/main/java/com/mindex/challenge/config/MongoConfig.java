@@ -1,41 +1,158 @@
 package com.mindex.challenge.config;
 
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.metrics.CountingDbRefResolver;
+import com.mindex.challenge.metrics.MongoCommandMetrics;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoBackend;
 import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
 import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 @EnableMongoRepositories(basePackageClasses = EmployeeRepository.class)
 @Configuration
 public class MongoConfig{
+    private static final Logger LOG = LoggerFactory.getLogger(MongoConfig.class);
+
+    public static final String MEMORY_BACKEND = "memory";
+    public static final String H2_BACKEND = "h2";
+
+    // memory keeps everything on heap and loses it on restart, h2 stores collections in an MVStore file
+    @Value("${mongo.backend:memory}")
+    private String backend;
+
+    @Value("${mongo.h2.file:data/mongo.mv.db}")
+    private String h2File;
+
+    // How long writes may sit in memory before the MVStore commits them to the file (0 = only on sync/shutdown)
+    @Value("${mongo.h2.auto-commit-delay-ms:1000}")
+    private int h2AutoCommitDelayMillis;
+
+    // Interval of the forced commit + fsync - bounds what a power loss can take (0 = leave it to the OS)
+    @Value("${mongo.h2.sync-interval-ms:0}")
+    private long h2SyncIntervalMillis;
+
+    @Value("${mongo.h2.cache-size-mb:16}")
+    private int h2CacheSizeMb;
+
+    private MVStore mvStore;
+
     @Bean
     public MongoTemplate mongoTemplate(MongoClient mongoClient) {
-        return new MongoTemplate(mongoDbFactory(mongoClient));
+        MongoDatabaseFactory mongoDatabaseFactory = mongoDatabaseFactory(mongoClient);
+        return new MongoTemplate(mongoDatabaseFactory, mongoConverter(mongoDatabaseFactory));
     }
 
     @Bean
-    public MongoDbFactory mongoDbFactory(MongoClient mongoClient) {
-        return new SimpleMongoClientDbFactory(mongoClient, "test");
+    public MongoDatabaseFactory mongoDatabaseFactory(MongoClient mongoClient) {
+        return new SimpleMongoClientDatabaseFactory(mongoClient, "test");
     }
 
     @Bean(destroyMethod="shutdown")
     public MongoServer mongoServer() {
-        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        MongoServer mongoServer = new MongoServer(mongoBackend());
         mongoServer.bind();
         return mongoServer;
     }
 
+    // Every command is timed (and counted towards the current request) by MongoCommandMetrics
     @Bean(destroyMethod="close")
-    public MongoClient mongoClient() {
-        return MongoClients.create("mongodb:/" + mongoServer().getLocalAddress());
+    public MongoClient mongoClient(MeterRegistry meterRegistry) {
+        return MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb:/" + mongoServer().getLocalAddress()))
+                .addCommandListener(new MongoCommandMetrics(meterRegistry))
+                .build());
+    }
+
+    // Depends on the server, so it is stopped before the server (and with it the MVStore) is closed
+    @Bean(destroyMethod="shutdownNow")
+    @ConditionalOnExpression("'${mongo.backend:memory}' == 'h2' && ${mongo.h2.sync-interval-ms:0} > 0")
+    public ScheduledExecutorService h2SyncScheduler(MongoServer mongoServer) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "h2-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncH2Store, h2SyncIntervalMillis, h2SyncIntervalMillis, TimeUnit.MILLISECONDS);
+        return scheduler;
     }
-}
 
+    // MongoTemplate's default converter, resolving DBRefs through CountingDbRefResolver and cutting any directReports
+    // cycle in bad data out of what it reads (CycleSafeMongoConverter)
+    private static MappingMongoConverter mongoConverter(MongoDatabaseFactory mongoDatabaseFactory) {
+        MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
 
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new CycleSafeMongoConverter(new CountingDbRefResolver(mongoDatabaseFactory), mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.setCodecRegistryProvider(mongoDatabaseFactory);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private MongoBackend mongoBackend() {
+        if (MEMORY_BACKEND.equals(backend)) {
+            return new MemoryBackend();
+        }
+        if (H2_BACKEND.equals(backend)) {
+            return new H2Backend(openH2Store());
+        }
+
+        throw new IllegalArgumentException("Unknown mongo.backend [" + backend + "], expected " + MEMORY_BACKEND + " or " + H2_BACKEND);
+    }
+
+    private MVStore openH2Store() {
+        File file = new File(h2File).getAbsoluteFile();
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+
+        mvStore = new MVStore.Builder()
+                .fileName(file.getPath())
+                .cacheSize(h2CacheSizeMb)
+                .open();
+        mvStore.setAutoCommitDelay(h2AutoCommitDelayMillis);
+
+        LOG.info("Using h2 backend [{}] (auto commit delay {} ms, sync interval {} ms)", file, h2AutoCommitDelayMillis, h2SyncIntervalMillis);
+        return mvStore;
+    }
+
+    private void syncH2Store() {
+        try {
+            if (!mvStore.isClosed()) {
+                mvStore.commit();
+                mvStore.sync();
+            }
+        } catch (RuntimeException e) {
+            // keep the schedule alive - the next run retries
+            LOG.warn("Could not sync h2 backend", e);
+        }
+    }
+}
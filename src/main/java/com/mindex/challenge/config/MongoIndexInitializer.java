@@ -0,0 +1,49 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.dao.CompensationRepositoryImpl;
+import com.mindex.challenge.dao.EmployeeRepositoryImpl;
+import com.mindex.challenge.data.CompensationHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+// Creates the indexes the services rely on before any data is loaded (DataBootstrap depends on this bean)
+@Component
+public class MongoIndexInitializer {
+    private static final Logger LOG = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void ensureIndexes() {
+        // One compensation per employee - sparse, so documents written before the shadow field existed don't collide
+        String compensationIndex = mongoTemplate.indexOps(CompensationRepositoryImpl.COLLECTION).ensureIndex(
+                new Index(CompensationRepositoryImpl.EMPLOYEE_ID, Sort.Direction.ASC).unique().sparse());
+
+        // One history entry per employee and effective date
+        String compensationHistoryIndex = mongoTemplate.indexOps(CompensationHistory.class).ensureIndex(
+                new Index().on("employeeId", Sort.Direction.ASC).on("effectiveDate", Sort.Direction.ASC).unique());
+
+        // GET /employees filters - equality fields first, then _id so keyset pages are a range scan of the same index
+        // One per filter combination, so each is served in _id order without a sort (see EmployeeRepositoryImpl.pageQuery)
+        String departmentPositionIndex = mongoTemplate.indexOps(EmployeeRepositoryImpl.COLLECTION).ensureIndex(
+                new Index().on(EmployeeRepositoryImpl.DEPARTMENT, Sort.Direction.ASC).on(EmployeeRepositoryImpl.POSITION, Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC).named(EmployeeRepositoryImpl.DEPARTMENT_POSITION_INDEX));
+        String departmentIndex = mongoTemplate.indexOps(EmployeeRepositoryImpl.COLLECTION).ensureIndex(
+                new Index().on(EmployeeRepositoryImpl.DEPARTMENT, Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named(EmployeeRepositoryImpl.DEPARTMENT_INDEX));
+        String positionIndex = mongoTemplate.indexOps(EmployeeRepositoryImpl.COLLECTION).ensureIndex(
+                new Index().on(EmployeeRepositoryImpl.POSITION, Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named(EmployeeRepositoryImpl.POSITION_INDEX));
+
+        LOG.debug("Ensured indexes [{}, {}, {}, {}, {}]", compensationIndex, compensationHistoryIndex, departmentPositionIndex,
+                departmentIndex, positionIndex);
+    }
+}
@@ -0,0 +1,46 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.metrics.MongoCommandMetrics;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+// Reactive driver for the reactive profile, talking to the same embedded server as MongoConfig's blocking client
+// Boot's reactive Mongo auto-configuration is excluded (application.properties) - it would connect to localhost:27017
+@Profile(ReactiveMongoConfig.REACTIVE_PROFILE)
+@EnableReactiveMongoRepositories(basePackageClasses = EmployeeRepository.class)
+@Configuration
+public class ReactiveMongoConfig {
+
+    public static final String REACTIVE_PROFILE = "reactive";
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient) {
+        return new ReactiveMongoTemplate(reactiveMongoDatabaseFactory(reactiveMongoClient));
+    }
+
+    @Bean
+    public ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory(MongoClient reactiveMongoClient) {
+        return new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, "test");
+    }
+
+    // Commands are timed like the blocking client's - the per-request counts only work on the servlet stack
+    @Bean(destroyMethod="close")
+    public MongoClient reactiveMongoClient(MongoServer mongoServer, MeterRegistry meterRegistry) {
+        return MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb:/" + mongoServer.getLocalAddress()))
+                .addCommandListener(new MongoCommandMetrics(meterRegistry))
+                .build());
+    }
+}
@@ -0,0 +1,31 @@
+package com.mindex.challenge.config;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.Executors;
+
+// Tomcat request handling on virtual threads for the virtual-threads profile
+// EmployeeServiceImpl's Mongo calls run on the request thread, so a request waiting on Mongo parks its virtual thread
+// instead of holding one of Tomcat's 200 platform threads - in-flight requests are bounded by server.tomcat.max-connections
+// Only where the code below the request parks without holding a monitor, though: the 4.6.x Mongo driver of Boot 2.7
+// has no virtual-thread support (it predates them) and can pin the carrier inside its synchronized sections for a round
+// trip, and its connection pool still caps the round trips in flight. What this profile buys is cheap waiting (queued
+// requests, the ReentrantLock hierarchy writes, cache misses loaded outside Caffeine's locks) - not more concurrent Mongo
+// work than the carriers and the pool allow.
+@Profile(VirtualThreadConfig.VIRTUAL_THREADS_PROFILE)
+@Configuration
+public class VirtualThreadConfig {
+
+    public static final String VIRTUAL_THREADS_PROFILE = "virtual-threads";
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadExecutorCustomizer() {
+        // one new virtual thread per request, nothing pooled - Tomcat leaves an executor it didn't create running on shutdown,
+        // which is fine as this one holds no threads of its own
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtual-", 0).factory()));
+    }
+}
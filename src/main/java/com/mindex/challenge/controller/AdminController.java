@@ -0,0 +1,90 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.DataBootstrap;
+import com.mindex.challenge.cache.EmployeeCache;
+import com.mindex.challenge.data.CacheStatistics;
+import com.mindex.challenge.data.OrgChartConsistencyReport;
+import com.mindex.challenge.data.RequestTrace;
+import com.mindex.challenge.data.SnapshotResult;
+import com.mindex.challenge.index.OrgChartConsistencyChecker;
+import com.mindex.challenge.metrics.RequestTraceBuffer;
+import com.mindex.challenge.snapshot.SnapshotWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Operational endpoints - not part of the public Employee API
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+    private static final Logger LOG = LoggerFactory.getLogger(AdminController.class);
+
+    @Autowired
+    private OrgChartConsistencyChecker orgChartConsistencyChecker;
+
+    @Autowired
+    private SnapshotWriter snapshotWriter;
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private RequestTraceBuffer requestTraceBuffer;
+
+    // Recomputes all report counts and lists any drift from the maintained counters
+    @GetMapping("/org-chart/consistency")
+    public OrgChartConsistencyReport checkOrgChart() {
+        LOG.debug("Received org chart consistency check request");
+
+        return orgChartConsistencyChecker.check();
+    }
+
+    // Writes the current database to the bootstrap.snapshot file, which the next start-up loads instead of the JSON
+    @PostMapping("/snapshot")
+    public SnapshotResult writeSnapshot() {
+        LOG.debug("Received snapshot request");
+
+        Path snapshot = dataBootstrap.getSnapshotPath();
+        if (snapshot == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No snapshot file configured (bootstrap.snapshot)");
+        }
+
+        try {
+            return snapshotWriter.write(snapshot);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not write snapshot " + snapshot, e);
+        }
+    }
+
+    // Hit/miss/eviction statistics of the employee read-through cache
+    @GetMapping("/cache/employees")
+    public CacheStatistics readEmployeeCacheStatistics() {
+        LOG.debug("Received employee cache statistics request");
+
+        return employeeCache.getStatistics();
+    }
+
+    // The slowest recent requests with their repository calls, Mongo commands and DBRef fetches
+    @GetMapping("/diagnostics")
+    public List<RequestTrace> readDiagnostics(@RequestParam(defaultValue = "20") int limit) {
+        LOG.debug("Received diagnostics request for the [{}] slowest requests", limit);
+
+        if (limit < 1) {
+            // Respond with proper entity Bad Request 400
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+
+        return requestTraceBuffer.getSlowest(limit);
+    }
+}
@@ -1,20 +1,44 @@
 package com.mindex.challenge.controller;
 
+import com.mindex.challenge.config.ReactiveMongoConfig;
+import com.mindex.challenge.data.BatchCreateResult;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationHistory;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.data.OrgCost;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReportTraversalStrategy;
 
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Spring MVC endpoints - ReactiveEmployeeController takes over with the reactive profile
+// Every endpoint is timed as http.server.requests (tagged with its URI pattern), with histogram buckets for percentiles
+@Profile("!" + ReactiveMongoConfig.REACTIVE_PROFILE)
+@Timed(histogram = true)
 @RestController
 public class EmployeeController {
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeController.class);
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private EmployeeService employeeService;
 
@@ -27,7 +51,41 @@ public class EmployeeController {
                 .status(201) // confirm created response
                 .body(createdEmployee);
     }
+
+    // Bulk create for large syncs - UUIDs assigned server side, written in bulk batches of ?batchSize= (default employee.batch.size)
+    @PostMapping("/employees/batch")
+    public ResponseEntity<BatchCreateResult> createBatch(@RequestBody List<Employee> employees,
+    		@RequestParam(required = false) Integer batchSize) {
+        LOG.debug("Received batch employee create request for [{}] employees", employees.size());
+
+        BatchCreateResult result = employeeService.createBatch(employees, batchSize);
+        return ResponseEntity
+                .status(result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS) // per-item results in the body
+                .body(result);
+    }
     
+    // Every employee as newline-delimited JSON, directReports as employeeIds
+    // Streamed straight from the Mongo cursor to the response, so heap use doesn't grow with the collection
+    @GetMapping("/employees/export")
+    public void export(HttpServletResponse response) throws IOException {
+        LOG.debug("Received employee export request");
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        employeeService.export(response.getOutputStream());
+    }
+
+    // Directory listing - both filters are optional, pass the returned nextCursor back as cursor for the next page
+    @GetMapping("/employees")
+    public EmployeePage readPage(@RequestParam(required = false) String department,
+    		@RequestParam(required = false) String position,
+    		@RequestParam(required = false) Integer pageSize,
+    		@RequestParam(required = false) String cursor) {
+        LOG.debug("Received employee list request for department [{}] and position [{}]", department, position);
+
+        return employeeService.readPage(department, position, pageSize, cursor);
+    }
+
     // Rest endpoint to create compensation by existing employeeId
     @PostMapping("/employee/{id}/compensation")
     public ResponseEntity<Compensation> create(@PathVariable String id, @RequestBody Compensation compensation) {
@@ -47,34 +105,124 @@ public class EmployeeController {
                 .body(createdCompensation);
     }
 
+    // Default read - only the requested document, directReports returned as employeeIds
     @GetMapping("/employee/{id}")
-    public Employee read(@PathVariable String id) {
+    public EmployeeSummary read(@PathVariable String id, WebRequest request) {
         LOG.debug("Received employee get request for id [{}]", id);
         
+        // 304 straight from the index version - no database read, no body
+        if (notModified(request, employeeService.readVersion(id))) {
+        	return null;
+        }
+
+        return employeeService.readSummary(id);
+    }
+
+    // Recursive hydration of the whole directReports subtree - only when explicitly asked for with ?hydrate=true
+    @GetMapping(value = "/employee/{id}", params = "hydrate=true")
+    public Employee readHydrated(@PathVariable String id, WebRequest request) {
+        LOG.debug("Received hydrated employee get request for id [{}]", id);
+
+        // the body embeds the subtree, so its ETag follows the newest write anywhere in it
+        if (notModified(request, employeeService.readSubtreeVersion(id))) {
+        	return null;
+        }
 
         return employeeService.read(id);
     }
     
     // REST endpoint for GETing a dynamically created ReportStructure - Extends Employee endpoint
+    // maxDepth (levels below the employee), pageSize or cursor switch to a paged response that never hydrates the subtree
     @GetMapping("/employee/{id}/reporting-structure")
-    public ReportingStructure readReportStructure(@PathVariable String id) {
-        LOG.debug("Received report-structure get request for id [{}]", id);
+    public ReportingStructure readReportStructure(@PathVariable String id,
+    		@RequestParam(required = false) ReportTraversalStrategy strategy,
+    		@RequestParam(required = false) Integer maxDepth,
+    		@RequestParam(required = false) Integer pageSize,
+    		@RequestParam(required = false) String cursor,
+    		WebRequest request) {
+        LOG.debug("Received report-structure get request for id [{}] with strategy [{}]", id, strategy);
+        
+        // Changes whenever anyone in the subtree is written (or moved in or out of it)
+        if (notModified(request, employeeService.readSubtreeVersion(id))) {
+        	return null;
+        }
+        
+        if (maxDepth != null || pageSize != null || cursor != null) {
+        	return employeeService.readReportsPage(id, maxDepth, pageSize, cursor);
+        }
         
         // Catch/throw invalid employee handled here as well...
         Employee employee = employeeService.read(id);
         
-        return employeeService.readReports(employee);
+        // Optional ?strategy= overrides the configured traversal strategy
+        return strategy == null ? employeeService.readReports(employee) : employeeService.readReports(employee, strategy);
     }
     
     // Rest endpoint to retrieve compensation by employeeId
     @GetMapping("/employee/{id}/compensation")
-    public Compensation create(@PathVariable String id) {
+    public Compensation create(@PathVariable String id, WebRequest request) {
         LOG.debug("Received GET compensation request for employeeId [{}]", id);
         
         // Catch/throw invalid employee handled here.
         employeeService.read(id);
 
-        return employeeService.readCompensation(id);
+        Compensation compensation = employeeService.readCompensation(id);
+        // The body embeds the hydrated employee too - versions come from one ever increasing sequence, so the newer of
+        // the compensation and the employee's subtree changes whenever either does
+        long version = Math.max(compensation.getVersion() == null ? 0 : compensation.getVersion(), employeeService.readSubtreeVersion(id));
+        if (notModified(request, version)) {
+        	return null;
+        }
+        return compensation;
+    }
+
+    // Salary in effect on a date (yyyy-MM-dd) - the latest history entry effective on or before it
+    @GetMapping(value = "/employee/{id}/compensation", params = "asOf")
+    public CompensationHistory readCompensationAsOf(@PathVariable String id,
+    		@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received GET compensation request for employeeId [{}] as of [{}]", id, asOf);
+
+        // Catch/throw invalid employee handled here.
+        employeeService.read(id);
+
+        return employeeService.readCompensationAsOf(id, asOf);
+    }
+
+    // Rest endpoint to add a salary change to an employee's compensation history
+    @PostMapping("/employee/{id}/compensation/history")
+    public ResponseEntity<CompensationHistory> createHistory(@PathVariable String id, @RequestBody CompensationHistory compensationHistory) {
+        LOG.debug("Received compensation history create request for employeeId [{}] with salary [{}] and effective date [{}]",
+        		id,
+        		compensationHistory.getSalary(),
+        		compensationHistory.getEffectiveDate());
+
+        // Catch/throw invalid employee handled here.
+        employeeService.read(id);
+        compensationHistory.setEmployeeId(id);
+
+        CompensationHistory createdCompensationHistory = employeeService.createCompensationHistory(compensationHistory);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(createdCompensationHistory);
+    }
+
+    // Full compensation history of an employee, oldest first
+    @GetMapping("/employee/{id}/compensation/history")
+    public List<CompensationHistory> readHistory(@PathVariable String id) {
+        LOG.debug("Received GET compensation history request for employeeId [{}]", id);
+
+        // Catch/throw invalid employee handled here.
+        employeeService.read(id);
+
+        return employeeService.readCompensationHistory(id);
+    }
+
+    // Summed salaries of the employee's whole reporting subtree
+    @GetMapping("/employee/{id}/org-cost")
+    public OrgCost readOrgCost(@PathVariable String id) {
+        LOG.debug("Received org cost request for employeeId [{}]", id);
+
+        return employeeService.readOrgCost(id);
     }
 
     @PutMapping("/employee/{id}")
@@ -87,4 +235,18 @@ public class EmployeeController {
         employee.setEmployeeId(id);
         return employeeService.update(employee);
     }
+
+    // Partial update - only the supplied fields are written, the existence check is part of the same round trip
+    @PatchMapping("/employee/{id}")
+    public EmployeeSummary patch(@PathVariable String id, @RequestBody Map<String, Object> fields) {
+        LOG.debug("Received employee patch request for id [{}] with fields [{}]", id, fields.keySet());
+
+        return employeeService.patch(id, fields);
+    }
+
+    // Sets the strong ETag for the version and reports whether the client's If-None-Match still matches
+    // (the response is then already a 304) - versions of 0 are unknown employees, left to the normal 404 handling
+    private static boolean notModified(WebRequest request, long version) {
+        return version > 0 && request.checkNotModified("\"" + version + "\"");
+    }
 }
@@ -0,0 +1,142 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.config.ReactiveMongoConfig;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import com.mindex.challenge.service.ReportTraversalStrategy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// WebFlux variant of a subset of EmployeeController for the reactive profile, without blocking a request thread on Mongo:
+// employee create/read/PUT/PATCH, the reporting structure (strategy, maxDepth, pageSize and cursor as on the servlet
+// side), compensation create/read and the /employees directory
+// Not a drop-in replacement - batch create, export, ?hydrate=true, compensation history and asOf, and org-cost are
+// servlet only and not mapped under this profile
+@Profile(ReactiveMongoConfig.REACTIVE_PROFILE)
+@RestController
+public class ReactiveEmployeeController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeController.class);
+
+    @Autowired
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    @PostMapping("/employee")
+    public Mono<ResponseEntity<Employee>> create(@RequestBody Employee employee) {
+        LOG.debug("Received employee create request for [{}]", employee.getFirstName());
+
+        return reactiveEmployeeService.create(employee)
+                .map(createdEmployee -> ResponseEntity
+                        .status(HttpStatus.CREATED) // confirm created response
+                        .body(createdEmployee));
+    }
+
+    // Directory listing - both filters are optional, pass the returned nextCursor back as cursor for the next page
+    @GetMapping("/employees")
+    public Mono<EmployeePage> readPage(@RequestParam(required = false) String department,
+    		@RequestParam(required = false) String position,
+    		@RequestParam(required = false) Integer pageSize,
+    		@RequestParam(required = false) String cursor) {
+        LOG.debug("Received employee list request for department [{}] and position [{}]", department, position);
+
+        return reactiveEmployeeService.readPage(department, position, pageSize, cursor);
+    }
+
+    // Rest endpoint to create compensation by existing employeeId
+    @PostMapping("/employee/{id}/compensation")
+    public Mono<ResponseEntity<Compensation>> create(@PathVariable String id, @RequestBody Compensation compensation) {
+        LOG.debug("Received compensation create request for employeeId [{}] with salary [{}] and effective date [{}]",
+        		id,
+        		compensation.getSalary(),
+        		compensation.getEffectiveDate());
+
+        return reactiveEmployeeService.createCompensation(id, compensation)
+                .map(createdCompensation -> ResponseEntity
+                        .status(HttpStatus.CREATED) // confirm created response
+                        .body(createdCompensation));
+    }
+
+    // Only the requested document, directReports returned as employeeIds
+    @GetMapping("/employee/{id}")
+    public Mono<EmployeeSummary> read(@PathVariable String id, ServerWebExchange exchange) {
+        LOG.debug("Received employee get request for id [{}]", id);
+
+        // 304 straight from the index version - no database read, no body
+        if (notModified(exchange, reactiveEmployeeService.readVersion(id))) {
+        	return Mono.empty();
+        }
+
+        return reactiveEmployeeService.readSummary(id);
+    }
+
+    @PutMapping("/employee/{id}")
+    public Mono<Employee> update(@PathVariable String id, @RequestBody Employee employee) {
+        LOG.debug("Received employee update request for id [{}] and employee [{}]", id, employee);
+
+        // Invalid employee is a 404 from the service
+        employee.setEmployeeId(id);
+        return reactiveEmployeeService.update(employee);
+    }
+
+    // Partial update - only the supplied fields are written, the existence check is part of the same round trip
+    @PatchMapping("/employee/{id}")
+    public Mono<EmployeeSummary> patch(@PathVariable String id, @RequestBody Map<String, Object> fields) {
+        LOG.debug("Received employee patch request for id [{}] with fields [{}]", id, fields.keySet());
+
+        return reactiveEmployeeService.patch(id, fields);
+    }
+
+    // The whole subtree hydrated, loaded in batches of ids from the org chart index
+    // maxDepth (levels below the employee), pageSize or cursor switch to a paged response, like EmployeeController
+    @GetMapping("/employee/{id}/reporting-structure")
+    public Mono<ReportingStructure> readReportStructure(@PathVariable String id,
+    		@RequestParam(required = false) ReportTraversalStrategy strategy,
+    		@RequestParam(required = false) Integer maxDepth,
+    		@RequestParam(required = false) Integer pageSize,
+    		@RequestParam(required = false) String cursor,
+    		ServerWebExchange exchange) {
+        LOG.debug("Received report-structure get request for id [{}] with strategy [{}]", id, strategy);
+
+        // Changes whenever anyone in the subtree is written (or moved in or out of it)
+        if (notModified(exchange, reactiveEmployeeService.readSubtreeVersion(id))) {
+        	return Mono.empty();
+        }
+
+        if (maxDepth != null || pageSize != null || cursor != null) {
+        	return reactiveEmployeeService.readReportsPage(id, maxDepth, pageSize, cursor);
+        }
+
+        // Optional ?strategy= overrides the configured traversal strategy
+        return reactiveEmployeeService.readReports(id, strategy);
+    }
+
+    // Rest endpoint to retrieve compensation by employeeId
+    @GetMapping("/employee/{id}/compensation")
+    public Mono<Compensation> readCompensation(@PathVariable String id, ServerWebExchange exchange) {
+        LOG.debug("Received GET compensation request for employeeId [{}]", id);
+
+        // Newer of the compensation and the embedded employee's subtree, like EmployeeController
+        return reactiveEmployeeService.readCompensation(id)
+                .filter(compensation -> !notModified(exchange, Math.max(compensation.getVersion() == null ? 0 : compensation.getVersion(),
+                        reactiveEmployeeService.readSubtreeVersion(id))));
+    }
+
+    // Same strong ETag as EmployeeController - versions of 0 are unknown employees, left to the normal 404 handling
+    private static boolean notModified(ServerWebExchange exchange, long version) {
+        return version > 0 && exchange.checkNotModified("\"" + version + "\"");
+    }
+}
@@ -0,0 +1,21 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+// Denormalizes the referenced employee's id into a plain field on every Compensation write,
+// so a unique index on it can enforce one compensation per employee
+@Component
+public class CompensationEmployeeIdListener extends AbstractMongoEventListener<Compensation> {
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<Compensation> event) {
+        Compensation compensation = event.getSource();
+
+        if (compensation.getEmployee() != null) {
+            event.getDocument().put(CompensationRepositoryImpl.EMPLOYEE_ID, compensation.getEmployee().getEmployeeId());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.mindex.challenge.dao;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.mindex.challenge.data.CompensationHistory;
+
+public interface CompensationHistoryRepository extends MongoRepository<CompensationHistory, String> {
+}
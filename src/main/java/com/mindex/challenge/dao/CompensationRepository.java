@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
 
-public interface CompensationRepository extends MongoRepository<Compensation, String> {
+public interface CompensationRepository extends MongoRepository<Compensation, String>, CompensationRepositoryCustom {
 	
 	Compensation findByEmployee_EmployeeId(String employeeId);
 }
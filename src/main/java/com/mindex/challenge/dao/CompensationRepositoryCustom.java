@@ -0,0 +1,16 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+public interface CompensationRepositoryCustom {
+    // salaries of every given employee that has a compensation, in a single query however many ids are passed
+    // the employee DBRefs are never resolved
+    List<BigDecimal> findSalariesByEmployeeIdIn(Set<String> employeeIds);
+
+    // the employee's compensation with the employee left unset - null when there is none
+    Compensation findByEmployeeIdWithoutEmployee(String employeeId);
+}
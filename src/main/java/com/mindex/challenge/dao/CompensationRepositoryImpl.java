@@ -0,0 +1,66 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Custom repository fragment - picked up by Spring Data for CompensationRepository through the Impl suffix
+public class CompensationRepositoryImpl implements CompensationRepositoryCustom {
+
+    public static final String COLLECTION = "Compensation";
+    // Plain string copy of the employee DBRef id, written by CompensationEmployeeIdListener
+    public static final String EMPLOYEE_ID = "employeeId";
+
+    private static final String EMPLOYEE = "employee";
+
+    // Above this many ids one streamed scan of the collection is cheaper than shipping a huge $in list
+    private static final int MAX_IN_QUERY_IDS = 10000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<BigDecimal> findSalariesByEmployeeIdIn(Set<String> employeeIds) {
+        List<BigDecimal> salaries = new ArrayList<BigDecimal>();
+        if (employeeIds.isEmpty()) {
+            return salaries;
+        }
+
+        boolean scan = employeeIds.size() > MAX_IN_QUERY_IDS;
+        Query query = scan ? new Query() : Query.query(Criteria.where(EMPLOYEE_ID).in(employeeIds));
+        query.fields().include(EMPLOYEE_ID).include("salary");
+
+        // salary is stored as a string - converted the way the mapping layer would read it
+        ConversionService conversionService = mongoTemplate.getConverter().getConversionService();
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                Object salary = document.get("salary");
+                if (salary != null && (!scan || employeeIds.contains(document.getString(EMPLOYEE_ID)))) {
+                    salaries.add(conversionService.convert(salary, BigDecimal.class));
+                }
+            }
+        }
+
+        return salaries;
+    }
+
+    @Override
+    public Compensation findByEmployeeIdWithoutEmployee(String employeeId) {
+        // On the unique employeeId shadow field, leaving out the DBRef
+        Query query = Query.query(Criteria.where(EMPLOYEE_ID).is(employeeId));
+        query.fields().exclude(EMPLOYEE);
+
+        return mongoTemplate.findOne(query, Compensation.class, COLLECTION);
+    }
+}
@@ -0,0 +1,29 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Denormalizes directReports into a plain array of ids on every Employee write
+// so aggregations ($graphLookup) can connect on it without dereferencing DBRefs
+@Component
+public class DirectReportIdsListener extends AbstractMongoEventListener<Employee> {
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<Employee> event) {
+        Employee employee = event.getSource();
+
+        List<String> directReportIds = new ArrayList<String>();
+        if (employee.getDirectReports() != null) {
+            for (Employee report : employee.getDirectReports()) {
+                directReportIds.add(report.getEmployeeId());
+            }
+        }
+
+        event.getDocument().put(EmployeeRepositoryImpl.DIRECT_REPORT_IDS, directReportIds);
+    }
+}
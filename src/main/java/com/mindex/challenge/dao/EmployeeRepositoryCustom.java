@@ -0,0 +1,35 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface EmployeeRepositoryCustom {
+    // ids of every report below the employee, resolved server side in one round trip
+    // maxDepth limits the recursion (0 = direct reports only), null walks the whole subtree
+    List<String> findReportIdsByEmployeeId(String employeeId, Integer maxDepth);
+
+    // the employee document alone, directReports left as ids (no DBRef resolution)
+    EmployeeSummary findSummaryByEmployeeId(String employeeId);
+
+    // the employee hydrated with their whole subtree, one $in query per level instead of a DBRef fetch per report
+    // a report met again (a cycle, or a second manager) is cut off as an employeeId-only stub, unknown reports are left out
+    Employee findHierarchyByEmployeeId(String employeeId);
+
+    // many employee documents in one query, directReports left as ids - order is not guaranteed
+    List<EmployeeSummary> findSummariesByEmployeeIdIn(Collection<String> employeeIds);
+
+    // $set of only the given fields plus the new version, returning the updated document - null when it does not exist
+    // a directReports entry (a list of employeeIds) also rewrites the DBRefs and the directReportIds shadow field
+    EmployeeSummary updateFieldsByEmployeeId(String employeeId, Map<String, Object> fields, long version);
+
+    // up to limit employees matching the (optional) department and position, in employeeId order after afterEmployeeId
+    List<EmployeeSummary> findSummariesByDepartmentAndPosition(String department, String position, String afterEmployeeId, int limit);
+
+    // every employee document in turn, directReports left as ids - streamed from a cursor, never collected in memory
+    void forEachSummary(Consumer<EmployeeSummary> action);
+}
@@ -0,0 +1,315 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Custom repository fragment - picked up by Spring Data for EmployeeRepository through the Impl suffix
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    public static final String COLLECTION = "Employee";
+    // Plain string copy of the directReports DBRef ids, written by DirectReportIdsListener
+    // $graphLookup can't follow DBRef $id fields so it connects on this one instead
+    public static final String DIRECT_REPORT_IDS = "directReportIds";
+
+    public static final String DIRECT_REPORTS = "directReports";
+    public static final String DEPARTMENT = "department";
+    public static final String POSITION = "position";
+
+    // GET /employees indexes, created by MongoIndexInitializer - Mongo's default names for the keys
+    public static final String DEPARTMENT_POSITION_INDEX = "department_1_position_1__id_1";
+    public static final String DEPARTMENT_INDEX = "department_1__id_1";
+    public static final String POSITION_INDEX = "position_1__id_1";
+
+    private static final String REPORTS = "reports";
+    // documents per getMore while streaming the whole collection
+    private static final int STREAM_BATCH_SIZE = 1000;
+    // ids per $in query while loading a hierarchy level
+    private static final int HIERARCHY_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<String> findReportIdsByEmployeeId(String employeeId, Integer maxDepth) {
+        List<Document> reports = mongoTemplate.aggregate(reportIdsAggregation(employeeId, maxDepth), COLLECTION, Document.class).getMappedResults();
+        List<String> reportIds = new ArrayList<String>(reports.size());
+        for (Document report : reports) {
+            String reportId = report.getString("_id");
+            // the employee is their own depth 0 match (or part of a cycle in bad data) - never their own report
+            if (!employeeId.equals(reportId)) {
+                reportIds.add(reportId);
+            }
+        }
+
+        return reportIds;
+    }
+
+    @Override
+    public EmployeeSummary findSummaryByEmployeeId(String employeeId) {
+        Query query = Query.query(Criteria.where("_id").is(employeeId));
+        // Reading as a raw Document leaves the directReports DBRefs unresolved
+        Document document = mongoTemplate.findOne(query, Document.class, COLLECTION);
+
+        return document == null ? null : toSummary(document);
+    }
+
+    @Override
+    public Employee findHierarchyByEmployeeId(String employeeId) {
+        Document root = mongoTemplate.findOne(Query.query(Criteria.where("_id").is(employeeId)), Document.class, COLLECTION);
+        if (root == null) {
+            return null;
+        }
+
+        // Every document loaded so far - each employee is expanded at its first (breadth first) position only, so a
+        // cycle or a report listed under two managers ends in a stub instead of recursing forever
+        Map<String, Document> loaded = new HashMap<String, Document>();
+        Set<String> expanded = new HashSet<String>();
+        loaded.put(employeeId, root);
+        expanded.add(employeeId);
+
+        Employee hierarchy = toEmployee(root);
+        List<Employee> level = new ArrayList<Employee>();
+        level.add(hierarchy);
+        while (!level.isEmpty()) {
+            Set<String> nextIds = new LinkedHashSet<String>();
+            for (Employee employee : level) {
+                for (String reportId : toDirectReportIds(loaded.get(employee.getEmployeeId()))) {
+                    if (!loaded.containsKey(reportId)) {
+                        nextIds.add(reportId);
+                    }
+                }
+            }
+            loadDocuments(nextIds, loaded);
+
+            List<Employee> nextLevel = new ArrayList<Employee>();
+            for (Employee employee : level) {
+                Document document = loaded.get(employee.getEmployeeId());
+                if (document.get(DIRECT_REPORTS) == null) {
+                    continue;
+                }
+
+                List<Employee> directReports = new ArrayList<Employee>();
+                for (String reportId : toDirectReportIds(document)) {
+                    if (!loaded.containsKey(reportId)) {
+                        // no such employee
+                        continue;
+                    }
+                    if (expanded.add(reportId)) {
+                        Employee report = toEmployee(loaded.get(reportId));
+                        directReports.add(report);
+                        nextLevel.add(report);
+                    } else {
+                        directReports.add(Employee.fromEmployeeId(reportId));
+                    }
+                }
+                employee.setDirectReports(directReports);
+            }
+            level = nextLevel;
+        }
+
+        return hierarchy;
+    }
+
+    @Override
+    public List<EmployeeSummary> findSummariesByEmployeeIdIn(Collection<String> employeeIds) {
+        Query query = Query.query(Criteria.where("_id").in(employeeIds));
+
+        List<EmployeeSummary> summaries = new ArrayList<EmployeeSummary>(employeeIds.size());
+        for (Document document : mongoTemplate.find(query, Document.class, COLLECTION)) {
+            summaries.add(toSummary(document));
+        }
+
+        return summaries;
+    }
+
+    @Override
+    public List<EmployeeSummary> findSummariesByDepartmentAndPosition(String department, String position, String afterEmployeeId, int limit) {
+        List<Document> documents = mongoTemplate.find(pageQuery(department, position, afterEmployeeId, limit), Document.class, COLLECTION);
+        List<EmployeeSummary> summaries = new ArrayList<EmployeeSummary>(documents.size());
+        for (Document document : documents) {
+            summaries.add(toSummary(document));
+        }
+
+        return summaries;
+    }
+
+    @Override
+    public void forEachSummary(Consumer<EmployeeSummary> action) {
+        Query query = new Query().cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().exclude(DIRECT_REPORT_IDS);
+
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+            while (documents.hasNext()) {
+                action.accept(toSummary(documents.next()));
+            }
+        }
+    }
+
+    @Override
+    public EmployeeSummary updateFieldsByEmployeeId(String employeeId, Map<String, Object> fields, long version) {
+        // existence check and write in one round trip; raw Documents keep the DBRefs unresolved
+        Document document = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(employeeId)), fieldsUpdate(fields, version),
+                FindAndModifyOptions.options().returnNew(true), Document.class, COLLECTION);
+
+        return document == null ? null : toSummary(document);
+    }
+
+    // Shared with ReactiveEmployeeRepositoryImpl
+    static Update fieldsUpdate(Map<String, Object> fields, long version) {
+        Update update = new Update().set(VersionStampListener.VERSION, version);
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (!DIRECT_REPORTS.equals(field.getKey())) {
+                update.set(field.getKey(), field.getValue());
+                continue;
+            }
+
+            @SuppressWarnings("unchecked")
+            List<String> directReportIds = (List<String>) field.getValue();
+            List<DBRef> directReports = new ArrayList<DBRef>(directReportIds.size());
+            for (String directReportId : directReportIds) {
+                directReports.add(new DBRef(COLLECTION, directReportId));
+            }
+            update.set(DIRECT_REPORTS, directReports).set(DIRECT_REPORT_IDS, directReportIds);
+        }
+        return update;
+    }
+
+    // Shared with ReactiveEmployeeRepositoryImpl - one result document per report, plus the employee themself
+    static Aggregation reportIdsAggregation(String employeeId, Integer maxDepth) {
+        // Start from the employee themself (depth 0) so report depths line up with maxDepth + 1
+        // consistently on MongoDB and the embedded server, which counts array startWith values as depth 1
+        Document graphLookup = new Document("from", COLLECTION)
+                .append("startWith", "$_id")
+                .append("connectFromField", DIRECT_REPORT_IDS)
+                .append("connectToField", "_id")
+                .append("as", REPORTS);
+        if (maxDepth != null) {
+            // rendered by hand - GraphLookupOperation writes maxDepth as a long, which the embedded server rejects
+            graphLookup.append("maxDepth", maxDepth + 1);
+        }
+
+        AggregationOperation graphLookupReports = context -> new Document("$graphLookup", graphLookup);
+        // one small result document per report - only the ids of the subtree cross the wire
+        AggregationOperation projectReportId = context -> new Document("$project", new Document("_id", "$" + REPORTS + "._id"));
+
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").is(employeeId)),
+                graphLookupReports,
+                Aggregation.unwind(REPORTS),
+                projectReportId);
+    }
+
+    // Shared with ReactiveEmployeeRepositoryImpl
+    static Query pageQuery(String department, String position, String afterEmployeeId, int limit) {
+        Criteria criteria = new Criteria();
+        if (department != null) {
+            criteria.and(DEPARTMENT).is(department);
+        }
+        if (position != null) {
+            criteria.and(POSITION).is(position);
+        }
+        // keyset pagination - seeks past the previous page's last id instead of skipping over it
+        if (afterEmployeeId != null) {
+            criteria.and("_id").gt(afterEmployeeId);
+        }
+
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        query.fields().exclude(DIRECT_REPORT_IDS);
+        // the index whose keys are exactly the filters then _id - the planner could otherwise pick the department and
+        // position index for a department-only filter, which returns it out of _id order and needs an in-memory sort
+        String index = pageIndex(department, position);
+        if (index != null) {
+            query.withHint(index);
+        }
+        return query;
+    }
+
+    static String pageIndex(String department, String position) {
+        if (department != null) {
+            return position != null ? DEPARTMENT_POSITION_INDEX : DEPARTMENT_INDEX;
+        }
+        return position != null ? POSITION_INDEX : null;
+    }
+
+    // in batches of HIERARCHY_BATCH_SIZE ids, so a very wide level doesn't become one huge $in list
+    private void loadDocuments(Collection<String> employeeIds, Map<String, Document> loaded) {
+        List<String> batch = new ArrayList<String>(Math.min(employeeIds.size(), HIERARCHY_BATCH_SIZE));
+        for (String employeeId : employeeIds) {
+            batch.add(employeeId);
+            if (batch.size() == HIERARCHY_BATCH_SIZE) {
+                loadBatch(batch, loaded);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            loadBatch(batch, loaded);
+        }
+    }
+
+    private void loadBatch(List<String> employeeIds, Map<String, Document> loaded) {
+        for (Document document : mongoTemplate.find(Query.query(Criteria.where("_id").in(employeeIds)), Document.class, COLLECTION)) {
+            loaded.put(document.getString("_id"), document);
+        }
+    }
+
+    // scalar fields only - the caller fills in directReports
+    private static Employee toEmployee(Document document) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(document.getString("_id"));
+        employee.setFirstName(document.getString("firstName"));
+        employee.setLastName(document.getString("lastName"));
+        employee.setPosition(document.getString(POSITION));
+        employee.setDepartment(document.getString(DEPARTMENT));
+        Object version = document.get(VersionStampListener.VERSION);
+        employee.setVersion(version instanceof Number ? ((Number) version).longValue() : null);
+        return employee;
+    }
+
+    private static List<String> toDirectReportIds(Document document) {
+        List<String> directReportIds = new ArrayList<String>();
+        List<?> directReports = (List<?>) document.get(DIRECT_REPORTS);
+        if (directReports != null) {
+            for (Object directReport : directReports) {
+                directReportIds.add(((DBRef) directReport).getId().toString());
+            }
+        }
+        return directReportIds;
+    }
+
+    static EmployeeSummary toSummary(Document document) {
+        EmployeeSummary summary = new EmployeeSummary();
+        summary.setEmployeeId(document.getString("_id"));
+        summary.setFirstName(document.getString("firstName"));
+        summary.setLastName(document.getString("lastName"));
+        summary.setPosition(document.getString(POSITION));
+        summary.setDepartment(document.getString(DEPARTMENT));
+        Object version = document.get(VersionStampListener.VERSION);
+        summary.setVersion(version instanceof Number ? ((Number) version).longValue() : null);
+
+        summary.setDirectReports(toDirectReportIds(document));
+
+        return summary;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mindex.challenge.dao;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.mindex.challenge.data.Compensation;
+
+// Non-blocking counterpart of CompensationRepository, only registered with the reactive profile (see ReactiveMongoConfig)
+public interface ReactiveCompensationRepository extends ReactiveMongoRepository<Compensation, String>, ReactiveCompensationRepositoryCustom {
+}
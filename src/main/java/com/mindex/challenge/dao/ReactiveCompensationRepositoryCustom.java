@@ -0,0 +1,9 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCompensationRepositoryCustom {
+    // the compensation of an employee with its employee left null - the caller sets it, the reactive driver can't resolve the DBRef
+    Mono<Compensation> findByEmployeeIdWithoutEmployee(String employeeId);
+}
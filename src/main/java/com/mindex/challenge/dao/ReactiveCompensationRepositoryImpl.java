@@ -0,0 +1,26 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+// Custom repository fragment - picked up by Spring Data for ReactiveCompensationRepository through the Impl suffix
+public class ReactiveCompensationRepositoryImpl implements ReactiveCompensationRepositoryCustom {
+
+    private static final String EMPLOYEE = "employee";
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Compensation> findByEmployeeIdWithoutEmployee(String employeeId) {
+        // On the unique employeeId shadow field, leaving out the DBRef
+        Query query = Query.query(Criteria.where(CompensationRepositoryImpl.EMPLOYEE_ID).is(employeeId));
+        query.fields().exclude(EMPLOYEE);
+
+        return reactiveMongoTemplate.findOne(query, Compensation.class, CompensationRepositoryImpl.COLLECTION);
+    }
+}
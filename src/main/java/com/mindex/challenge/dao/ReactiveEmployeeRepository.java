@@ -0,0 +1,11 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import org.springframework.stereotype.Repository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+// Non-blocking counterpart of EmployeeRepository, only registered with the reactive profile (see ReactiveMongoConfig)
+// The reactive driver can't resolve DBRefs, so reads go through the summary queries rather than findById
+@Repository
+public interface ReactiveEmployeeRepository extends ReactiveMongoRepository<Employee, String>, ReactiveEmployeeRepositoryCustom {
+}
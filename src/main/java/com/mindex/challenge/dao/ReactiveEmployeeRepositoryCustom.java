@@ -0,0 +1,25 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.EmployeeSummary;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ReactiveEmployeeRepositoryCustom {
+    // ids of every report below the employee in one $graphLookup round trip - maxDepth as in EmployeeRepositoryCustom
+    Flux<String> findReportIdsByEmployeeId(String employeeId, Integer maxDepth);
+
+    // the employee document alone, directReports left as ids - empty when it does not exist
+    Mono<EmployeeSummary> findSummaryByEmployeeId(String employeeId);
+
+    // many employee documents in one query, directReports left as ids - order is not guaranteed
+    Flux<EmployeeSummary> findSummariesByEmployeeIdIn(Collection<String> employeeIds);
+
+    // $set of only the given fields plus the new version, like EmployeeRepositoryCustom - empty when it does not exist
+    Mono<EmployeeSummary> updateFieldsByEmployeeId(String employeeId, Map<String, Object> fields, long version);
+
+    // up to limit employees matching the (optional) department and position, in employeeId order after afterEmployeeId
+    Flux<EmployeeSummary> findSummariesByDepartmentAndPosition(String department, String position, String afterEmployeeId, int limit);
+}
@@ -0,0 +1,61 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.EmployeeSummary;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Custom repository fragment - picked up by Spring Data for ReactiveEmployeeRepository through the Impl suffix
+// Same queries as EmployeeRepositoryImpl, on the reactive driver
+public class ReactiveEmployeeRepositoryImpl implements ReactiveEmployeeRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<String> findReportIdsByEmployeeId(String employeeId, Integer maxDepth) {
+        return reactiveMongoTemplate.aggregate(EmployeeRepositoryImpl.reportIdsAggregation(employeeId, maxDepth), EmployeeRepositoryImpl.COLLECTION, Document.class)
+                .map(report -> report.getString("_id"))
+                // the employee is their own depth 0 match (or part of a cycle in bad data) - never their own report
+                .filter(reportId -> !employeeId.equals(reportId));
+    }
+
+    @Override
+    public Mono<EmployeeSummary> findSummaryByEmployeeId(String employeeId) {
+        Query query = Query.query(Criteria.where("_id").is(employeeId));
+
+        return reactiveMongoTemplate.findOne(query, Document.class, EmployeeRepositoryImpl.COLLECTION)
+                .map(EmployeeRepositoryImpl::toSummary);
+    }
+
+    @Override
+    public Flux<EmployeeSummary> findSummariesByEmployeeIdIn(Collection<String> employeeIds) {
+        Query query = Query.query(Criteria.where("_id").in(employeeIds));
+
+        return reactiveMongoTemplate.find(query, Document.class, EmployeeRepositoryImpl.COLLECTION)
+                .map(EmployeeRepositoryImpl::toSummary);
+    }
+
+    @Override
+    public Mono<EmployeeSummary> updateFieldsByEmployeeId(String employeeId, Map<String, Object> fields, long version) {
+        return reactiveMongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(employeeId)), EmployeeRepositoryImpl.fieldsUpdate(fields, version),
+                        FindAndModifyOptions.options().returnNew(true), Document.class, EmployeeRepositoryImpl.COLLECTION)
+                .map(EmployeeRepositoryImpl::toSummary);
+    }
+
+    @Override
+    public Flux<EmployeeSummary> findSummariesByDepartmentAndPosition(String department, String position, String afterEmployeeId, int limit) {
+        Query query = EmployeeRepositoryImpl.pageQuery(department, position, afterEmployeeId, limit);
+
+        return reactiveMongoTemplate.find(query, Document.class, EmployeeRepositoryImpl.COLLECTION)
+                .map(EmployeeRepositoryImpl::toSummary);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stamps every Employee and Compensation write with the next value of one global, ever increasing sequence
+// Because no write ever gets a lower version than an earlier one, the highest version in a subtree
+// changes whenever anything in it changes - which is what the reporting-structure ETag relies on.
+@Component
+public class VersionStampListener extends AbstractMongoEventListener<Object> {
+    private static final Logger LOG = LoggerFactory.getLogger(VersionStampListener.class);
+
+    public static final String VERSION = "version";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        // Continue above anything already stored (durable backend) and above the clock in microseconds,
+        // so versions - and the ETags clients hold on to - are never handed out twice across restarts
+        long start = Math.max(System.currentTimeMillis() * 1000, Math.max(
+                maxStoredVersion(EmployeeRepositoryImpl.COLLECTION), maxStoredVersion(CompensationRepositoryImpl.COLLECTION)));
+        sequence.set(start);
+
+        LOG.debug("Version sequence starts at [{}]", start);
+    }
+
+    public long nextVersion() {
+        return sequence.incrementAndGet();
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+        Object source = event.getSource();
+
+        if (source instanceof Employee) {
+            ((Employee) source).setVersion(nextVersion());
+        } else if (source instanceof Compensation) {
+            ((Compensation) source).setVersion(nextVersion());
+        }
+    }
+
+    private long maxStoredVersion(String collection) {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, VERSION)).limit(1);
+        query.fields().include(VERSION);
+
+        Document latest = mongoTemplate.findOne(query, Document.class, collection);
+        Object version = latest == null ? null : latest.get(VERSION);
+        return version instanceof Number ? ((Number) version).longValue() : 0;
+    }
+}
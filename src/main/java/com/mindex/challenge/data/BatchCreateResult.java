@@ -0,0 +1,135 @@
+package com.mindex.challenge.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Response of POST /employees/batch - one item per submitted employee, in request order
+public class BatchCreateResult {
+
+	public static final String CREATED = "CREATED";
+	public static final String FAILED = "FAILED";
+
+	private int requested;
+	private int created;
+	private int failed;
+	private int batchSize;
+	private long elapsedMillis;
+	private double employeesPerSecond;
+	private List<Item> items = new ArrayList<Item>();
+
+	public BatchCreateResult() {
+	}
+
+	public int getRequested() {
+		return requested;
+	}
+
+	public void setRequested(int requested) {
+		this.requested = requested;
+	}
+
+	public int getCreated() {
+		return created;
+	}
+
+	public void setCreated(int created) {
+		this.created = created;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public double getEmployeesPerSecond() {
+		return employeesPerSecond;
+	}
+
+	public void setEmployeesPerSecond(double employeesPerSecond) {
+		this.employeesPerSecond = employeesPerSecond;
+	}
+
+	public List<Item> getItems() {
+		return items;
+	}
+
+	public void setItems(List<Item> items) {
+		this.items = items;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchCreateResult [requested=" + requested + ", created=" + created + ", failed=" + failed
+				+ ", batchSize=" + batchSize + ", elapsedMillis=" + elapsedMillis + ", employeesPerSecond="
+				+ employeesPerSecond + "]";
+	}
+
+	// Outcome for the employee at the same position of the request array
+	public static class Item {
+		private int index;
+		private String employeeId;
+		private String status;
+		private String error;
+
+		public Item() {
+		}
+
+		public Item(int index, String employeeId, String status, String error) {
+			this.index = index;
+			this.employeeId = employeeId;
+			this.status = status;
+			this.error = error;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public void setIndex(int index) {
+			this.index = index;
+		}
+
+		public String getEmployeeId() {
+			return employeeId;
+		}
+
+		public void setEmployeeId(String employeeId) {
+			this.employeeId = employeeId;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+
+		public void setStatus(String status) {
+			this.status = status;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		public void setError(String error) {
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.mindex.challenge.data;
+
+// Hit/miss/eviction counters of a cache since start-up
+public class CacheStatistics {
+
+	private long size;
+	private long maximumSize;
+	private long hitCount;
+	private long missCount;
+	private double hitRate;
+	private long evictionCount;
+	private long loadCount;
+	private double averageLoadPenaltyMillis;
+
+	public CacheStatistics() {
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public void setSize(long size) {
+		this.size = size;
+	}
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public void setHitCount(long hitCount) {
+		this.hitCount = hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public void setMissCount(long missCount) {
+		this.missCount = missCount;
+	}
+
+	public double getHitRate() {
+		return hitRate;
+	}
+
+	public void setHitRate(double hitRate) {
+		this.hitRate = hitRate;
+	}
+
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public void setEvictionCount(long evictionCount) {
+		this.evictionCount = evictionCount;
+	}
+
+	public long getLoadCount() {
+		return loadCount;
+	}
+
+	public void setLoadCount(long loadCount) {
+		this.loadCount = loadCount;
+	}
+
+	public double getAverageLoadPenaltyMillis() {
+		return averageLoadPenaltyMillis;
+	}
+
+	public void setAverageLoadPenaltyMillis(double averageLoadPenaltyMillis) {
+		this.averageLoadPenaltyMillis = averageLoadPenaltyMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStatistics [size=" + size + ", maximumSize=" + maximumSize + ", hitCount=" + hitCount
+				+ ", missCount=" + missCount + ", hitRate=" + hitRate + ", evictionCount=" + evictionCount
+				+ ", loadCount=" + loadCount + ", averageLoadPenaltyMillis=" + averageLoadPenaltyMillis + "]";
+	}
+}
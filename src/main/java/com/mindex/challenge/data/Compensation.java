@@ -25,6 +25,8 @@ public class Compensation {
 	private LocalDate effectiveDate;
 	@DBRef
 	private Employee employee;
+	// Stamped from a global, ever increasing sequence on every write (see VersionStampListener) - backs the ETag
+	private Long version;
 	
 	public Compensation() {
 	}
@@ -69,9 +71,17 @@ public class Compensation {
 		this.employee = employee;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
 		return "Compensation [compensationId=" + compensationId + ", salary=" + salary + ", effectiveDate="
-				+ effectiveDate + ", employee=" + employee + "]";
+				+ effectiveDate + ", employee=" + employee + ", version=" + version + "]";
 	}
 }
\ No newline at end of file
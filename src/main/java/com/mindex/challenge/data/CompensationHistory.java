@@ -0,0 +1,67 @@
+package com.mindex.challenge.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// One salary change of an employee, in effect from effectiveDate until the next change
+// The employee is referenced by id only - history rows are never hydrated
+@Document(collection = "CompensationHistory")
+public class CompensationHistory {
+
+	@Id
+	private String compensationHistoryId;
+	private String employeeId;
+	private BigDecimal salary;
+	private LocalDate effectiveDate;
+
+	public CompensationHistory() {
+	}
+
+	public CompensationHistory(String compensationHistoryId, String employeeId, BigDecimal salary, LocalDate effectiveDate) {
+		this.compensationHistoryId = compensationHistoryId;
+		this.employeeId = employeeId;
+		this.salary = salary;
+		this.effectiveDate = effectiveDate;
+	}
+
+	public String getCompensationHistoryId() {
+		return compensationHistoryId;
+	}
+
+	public void setCompensationHistoryId(String compensationHistoryId) {
+		this.compensationHistoryId = compensationHistoryId;
+	}
+
+	public String getEmployeeId() {
+		return employeeId;
+	}
+
+	public void setEmployeeId(String employeeId) {
+		this.employeeId = employeeId;
+	}
+
+	public BigDecimal getSalary() {
+		return salary;
+	}
+
+	public void setSalary(BigDecimal salary) {
+		this.salary = salary;
+	}
+
+	public LocalDate getEffectiveDate() {
+		return effectiveDate;
+	}
+
+	public void setEffectiveDate(LocalDate effectiveDate) {
+		this.effectiveDate = effectiveDate;
+	}
+
+	@Override
+	public String toString() {
+		return "CompensationHistory [compensationHistoryId=" + compensationHistoryId + ", employeeId=" + employeeId
+				+ ", salary=" + salary + ", effectiveDate=" + effectiveDate + "]";
+	}
+}
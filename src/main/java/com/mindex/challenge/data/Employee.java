@@ -2,6 +2,8 @@ package com.mindex.challenge.data;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -19,12 +21,23 @@ public class Employee {
     // minimizes overhead of retrieving each employee separately by reducing number of round trips to database
     // can lead to N+1 query problems (multiple queries executed to retrieve related documents (employees + each employee in directReports))
     // these problems can be mitigated with optimized retrieval strategies (i.e. MongoDB data Aggregations specifying graph lookup and say max data depth)
+    // a cycle in stored data comes back cut to an employeeId-only stub (CycleSafeMongoConverter)
     @DBRef
     private List<Employee> directReports;
+    // Stamped from a global, ever increasing sequence on every write (see VersionStampListener) - backs the ETags
+    private Long version;
 
     public Employee() {
     }
 
+    // Lets directReports be sent as plain employeeIds, the shape GET /employee/{id} returns them in
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Employee fromEmployeeId(String id) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+        return employee;
+    }
+
     public String getEmployeeId() {
         return employeeId;
     }
@@ -72,4 +85,12 @@ public class Employee {
     public void setDirectReports(List<Employee> directReports) {
         this.directReports = directReports;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
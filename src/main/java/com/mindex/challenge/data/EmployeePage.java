@@ -0,0 +1,41 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One page of GET /employees - nextCursor is absent on the last page
+public class EmployeePage {
+    private List<EmployeeSummary> employees;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public EmployeePage() {
+    }
+
+    public EmployeePage(List<EmployeeSummary> employees, String nextCursor) {
+        this.employees = employees;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EmployeeSummary> getEmployees() {
+        return employees;
+    }
+
+    public void setEmployees(List<EmployeeSummary> employees) {
+        this.employees = employees;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeePage [employees=" + employees + ", nextCursor=" + nextCursor + "]";
+    }
+}
@@ -0,0 +1,81 @@
+package com.mindex.challenge.data;
+
+import java.util.List;
+
+// Single Employee document with directReports left as employeeIds, matching the README schema
+// Reading it never resolves the directReports DBRefs, so it costs one document no matter the subtree size
+public class EmployeeSummary {
+    private String employeeId;
+    private String firstName;
+    private String lastName;
+    private String position;
+    private String department;
+    private List<String> directReports;
+    private Long version;
+
+    public EmployeeSummary() {
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public void setPosition(String position) {
+        this.position = position;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public List<String> getDirectReports() {
+        return directReports;
+    }
+
+    public void setDirectReports(List<String> directReports) {
+        this.directReports = directReports;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeSummary [employeeId=" + employeeId + ", firstName=" + firstName + ", lastName=" + lastName
+                + ", position=" + position + ", department=" + department + ", directReports=" + directReports
+                + ", version=" + version + "]";
+    }
+}
@@ -0,0 +1,94 @@
+package com.mindex.challenge.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Result of recomputing every employee's report count from the database and comparing it with the maintained counters
+public class OrgChartConsistencyReport {
+
+	private int checkedEmployees;
+	private long elapsedMillis;
+	private List<Drift> drift = new ArrayList<Drift>();
+
+	public OrgChartConsistencyReport() {
+	}
+
+	public int getCheckedEmployees() {
+		return checkedEmployees;
+	}
+
+	public void setCheckedEmployees(int checkedEmployees) {
+		this.checkedEmployees = checkedEmployees;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public List<Drift> getDrift() {
+		return drift;
+	}
+
+	public void setDrift(List<Drift> drift) {
+		this.drift = drift;
+	}
+
+	public boolean isConsistent() {
+		return drift.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "OrgChartConsistencyReport [checkedEmployees=" + checkedEmployees + ", elapsedMillis=" + elapsedMillis
+				+ ", drift=" + drift + "]";
+	}
+
+	// One employee whose maintained count (-1 when missing from the index) differs from the recomputed one
+	public static class Drift {
+		private String employeeId;
+		private int storedCount;
+		private int actualCount;
+
+		public Drift() {
+		}
+
+		public Drift(String employeeId, int storedCount, int actualCount) {
+			this.employeeId = employeeId;
+			this.storedCount = storedCount;
+			this.actualCount = actualCount;
+		}
+
+		public String getEmployeeId() {
+			return employeeId;
+		}
+
+		public void setEmployeeId(String employeeId) {
+			this.employeeId = employeeId;
+		}
+
+		public int getStoredCount() {
+			return storedCount;
+		}
+
+		public void setStoredCount(int storedCount) {
+			this.storedCount = storedCount;
+		}
+
+		public int getActualCount() {
+			return actualCount;
+		}
+
+		public void setActualCount(int actualCount) {
+			this.actualCount = actualCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Drift [employeeId=" + employeeId + ", storedCount=" + storedCount + ", actualCount=" + actualCount + "]";
+		}
+	}
+}
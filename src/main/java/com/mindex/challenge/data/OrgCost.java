@@ -0,0 +1,61 @@
+package com.mindex.challenge.data;
+
+import java.math.BigDecimal;
+
+// Summed salaries of everyone below a manager (the manager's own salary is not included)
+public class OrgCost {
+
+	private String employeeId;
+	private int numberOfReports;
+	// reports that have a compensation - the others add nothing to the total
+	private int compensatedReports;
+	private BigDecimal totalSalary;
+
+	public OrgCost() {
+	}
+
+	public OrgCost(String employeeId, int numberOfReports, int compensatedReports, BigDecimal totalSalary) {
+		this.employeeId = employeeId;
+		this.numberOfReports = numberOfReports;
+		this.compensatedReports = compensatedReports;
+		this.totalSalary = totalSalary;
+	}
+
+	public String getEmployeeId() {
+		return employeeId;
+	}
+
+	public void setEmployeeId(String employeeId) {
+		this.employeeId = employeeId;
+	}
+
+	public int getNumberOfReports() {
+		return numberOfReports;
+	}
+
+	public void setNumberOfReports(int numberOfReports) {
+		this.numberOfReports = numberOfReports;
+	}
+
+	public int getCompensatedReports() {
+		return compensatedReports;
+	}
+
+	public void setCompensatedReports(int compensatedReports) {
+		this.compensatedReports = compensatedReports;
+	}
+
+	public BigDecimal getTotalSalary() {
+		return totalSalary;
+	}
+
+	public void setTotalSalary(BigDecimal totalSalary) {
+		this.totalSalary = totalSalary;
+	}
+
+	@Override
+	public String toString() {
+		return "OrgCost [employeeId=" + employeeId + ", numberOfReports=" + numberOfReports + ", compensatedReports="
+				+ compensatedReports + ", totalSalary=" + totalSalary + "]";
+	}
+}
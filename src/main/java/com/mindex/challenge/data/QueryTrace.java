@@ -0,0 +1,63 @@
+package com.mindex.challenge.data;
+
+// One database access within a traced request - times in microseconds, start relative to the start of the request
+public class QueryTrace {
+
+	public static final String REPOSITORY = "REPOSITORY";
+	public static final String COMMAND = "COMMAND";
+	public static final String DBREF = "DBREF";
+
+	// REPOSITORY (a repository method), COMMAND (a command sent to Mongo) or DBREF (DBRefs resolved by the mapping layer)
+	private String type;
+	private String name;
+	private long startMicros;
+	private long durationMicros;
+
+	public QueryTrace() {
+	}
+
+	public QueryTrace(String type, String name, long startMicros, long durationMicros) {
+		this.type = type;
+		this.name = name;
+		this.startMicros = startMicros;
+		this.durationMicros = durationMicros;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public long getStartMicros() {
+		return startMicros;
+	}
+
+	public void setStartMicros(long startMicros) {
+		this.startMicros = startMicros;
+	}
+
+	public long getDurationMicros() {
+		return durationMicros;
+	}
+
+	public void setDurationMicros(long durationMicros) {
+		this.durationMicros = durationMicros;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryTrace [type=" + type + ", name=" + name + ", startMicros=" + startMicros + ", durationMicros="
+				+ durationMicros + "]";
+	}
+}
@@ -1,16 +1,19 @@
 package com.mindex.challenge.data;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.List;
 
-import com.mindex.challenge.service.impl.EmployeeServiceImpl;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 public class ReportingStructure {
 	
-	private static final Logger LOG = LoggerFactory.getLogger(EmployeeServiceImpl.class);
-	
 	private Employee employee;
 	private int numberOfReports;
+	// Paged responses only - one page of the subtree in Breadth First order, directReports as ids
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private List<EmployeeSummary> reports;
+	// Paged responses only - pass back as ?cursor= for the next page, absent on the last page
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String nextCursor;
 	
 	public ReportingStructure() {
 	}
@@ -18,8 +21,6 @@ public class ReportingStructure {
 	public ReportingStructure(Employee employee, int numberOfReports) {
 		super();
 		
-		LOG.debug("Creating ReportingStructure with employee [{} {}] and numberOfReports [{}]", employee.getFirstName(), employee.getLastName(), numberOfReports);
-		
 		this.employee = employee;
 		this.numberOfReports = numberOfReports;
 	}
@@ -40,8 +41,25 @@ public class ReportingStructure {
 		this.numberOfReports = numberOfReports;
 	}
 
+	public List<EmployeeSummary> getReports() {
+		return reports;
+	}
+
+	public void setReports(List<EmployeeSummary> reports) {
+		this.reports = reports;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
 	@Override
 	public String toString() {
-		return "ReportingStructure [employee=" + employee + ", numberOfReports=" + numberOfReports + "]";
+		return "ReportingStructure [employee=" + employee + ", numberOfReports=" + numberOfReports + ", reports="
+				+ reports + ", nextCursor=" + nextCursor + "]";
 	}
 }
@@ -0,0 +1,102 @@
+package com.mindex.challenge.data;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Database accesses of one HTTP request, see GET /admin/diagnostics
+// commands and dbRefResolutions count everything, queries keeps the first diagnostics.trace.max-queries
+public class RequestTrace {
+
+	private String method;
+	private String uri;
+	private int status;
+	private Instant startedAt;
+	private long durationMicros;
+	private long commands;
+	private long dbRefResolutions;
+	private List<QueryTrace> queries = new ArrayList<QueryTrace>();
+	private long droppedQueries;
+
+	public RequestTrace() {
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public String getUri() {
+		return uri;
+	}
+
+	public void setUri(String uri) {
+		this.uri = uri;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public Instant getStartedAt() {
+		return startedAt;
+	}
+
+	public void setStartedAt(Instant startedAt) {
+		this.startedAt = startedAt;
+	}
+
+	public long getDurationMicros() {
+		return durationMicros;
+	}
+
+	public void setDurationMicros(long durationMicros) {
+		this.durationMicros = durationMicros;
+	}
+
+	public long getCommands() {
+		return commands;
+	}
+
+	public void setCommands(long commands) {
+		this.commands = commands;
+	}
+
+	public long getDbRefResolutions() {
+		return dbRefResolutions;
+	}
+
+	public void setDbRefResolutions(long dbRefResolutions) {
+		this.dbRefResolutions = dbRefResolutions;
+	}
+
+	public List<QueryTrace> getQueries() {
+		return queries;
+	}
+
+	public void setQueries(List<QueryTrace> queries) {
+		this.queries = queries;
+	}
+
+	public long getDroppedQueries() {
+		return droppedQueries;
+	}
+
+	public void setDroppedQueries(long droppedQueries) {
+		this.droppedQueries = droppedQueries;
+	}
+
+	@Override
+	public String toString() {
+		return "RequestTrace [method=" + method + ", uri=" + uri + ", status=" + status + ", startedAt=" + startedAt
+				+ ", durationMicros=" + durationMicros + ", commands=" + commands + ", dbRefResolutions=" + dbRefResolutions
+				+ ", queries=" + queries.size() + ", droppedQueries=" + droppedQueries + "]";
+	}
+}
@@ -0,0 +1,69 @@
+package com.mindex.challenge.data;
+
+// Outcome of writing the database out to a binary start-up snapshot
+public class SnapshotResult {
+
+	private String path;
+	private long employees;
+	private long compensations;
+	private long compensationHistory;
+	private long bytes;
+	private long elapsedMillis;
+
+	public SnapshotResult() {
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	public long getEmployees() {
+		return employees;
+	}
+
+	public void setEmployees(long employees) {
+		this.employees = employees;
+	}
+
+	public long getCompensations() {
+		return compensations;
+	}
+
+	public void setCompensations(long compensations) {
+		this.compensations = compensations;
+	}
+
+	public long getCompensationHistory() {
+		return compensationHistory;
+	}
+
+	public void setCompensationHistory(long compensationHistory) {
+		this.compensationHistory = compensationHistory;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public void setBytes(long bytes) {
+		this.bytes = bytes;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotResult [path=" + path + ", employees=" + employees + ", compensations=" + compensations
+				+ ", compensationHistory=" + compensationHistory + ", bytes=" + bytes + ", elapsedMillis=" + elapsedMillis + "]";
+	}
+}
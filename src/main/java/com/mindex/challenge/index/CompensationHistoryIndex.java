@@ -0,0 +1,175 @@
+package com.mindex.challenge.index;
+
+import com.mindex.challenge.data.CompensationHistory;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process salary timeline of every employee, for "salary in effect on date X" lookups
+// Each employee's entries are held in parallel arrays sorted by effective date (as epoch days),
+// so an as-of lookup is one hash lookup plus a binary search - no database access.
+// Timelines are immutable and replaced on write, so reads never take a lock.
+// The current Compensation and the CompensationHistory rows share the timeline. On the same effective date the current
+// Compensation wins: a history row never replaces it, whatever order the two are written or loaded in.
+@Component
+public class CompensationHistoryIndex {
+
+    private final Map<String, Timeline> timelinesByEmployee = new ConcurrentHashMap<String, Timeline>();
+
+    // Adds or replaces (same effective date) a CompensationHistory entry of the employee's timeline
+    public void put(String employeeId, String compensationId, LocalDate effectiveDate, BigDecimal salary) {
+        put(employeeId, compensationId, effectiveDate, salary, false);
+    }
+
+    // Adds or replaces (same effective date) the employee's current Compensation
+    public void putCurrent(String employeeId, String compensationId, LocalDate effectiveDate, BigDecimal salary) {
+        put(employeeId, compensationId, effectiveDate, salary, true);
+    }
+
+    private void put(String employeeId, String compensationId, LocalDate effectiveDate, BigDecimal salary, boolean current) {
+        if (employeeId == null || effectiveDate == null) {
+            return;
+        }
+
+        long day = effectiveDate.toEpochDay();
+        timelinesByEmployee.compute(employeeId, (id, timeline) ->
+                (timeline == null ? Timeline.EMPTY : timeline).with(day, compensationId, salary, current));
+    }
+
+    // Entry in effect on the given date (latest effective date on or before it) - null when there is none
+    public CompensationHistory findAsOf(String employeeId, LocalDate asOf) {
+        Timeline timeline = timelinesByEmployee.get(employeeId);
+        if (timeline == null) {
+            return null;
+        }
+
+        int position = timeline.floor(asOf.toEpochDay());
+        return position < 0 ? null : timeline.toCompensationHistory(employeeId, position);
+    }
+
+    // Whole timeline, oldest first
+    public List<CompensationHistory> findAll(String employeeId) {
+        Timeline timeline = timelinesByEmployee.get(employeeId);
+        if (timeline == null) {
+            return Collections.emptyList();
+        }
+
+        List<CompensationHistory> history = new ArrayList<CompensationHistory>(timeline.days.length);
+        for (int position = 0; position < timeline.days.length; position++) {
+            history.add(timeline.toCompensationHistory(employeeId, position));
+        }
+        return history;
+    }
+
+    public void clear() {
+        timelinesByEmployee.clear();
+    }
+
+    // Adds every stored Compensation and CompensationHistory row - DBRefs are read as ids, never resolved
+    public void load(MongoTemplate mongoTemplate) {
+        ConversionService conversionService = mongoTemplate.getConverter().getConversionService();
+
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(new Query(), Document.class, "Compensation")) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                DBRef employee = (DBRef) document.get("employee");
+                putCurrent(employee == null ? null : employee.getId().toString(), document.getString("_id"),
+                        conversionService.convert(document.get("effectiveDate"), LocalDate.class),
+                        conversionService.convert(document.get("salary"), BigDecimal.class));
+            }
+        }
+
+        try (CloseableIterator<CompensationHistory> history = mongoTemplate.stream(new Query(), CompensationHistory.class)) {
+            while (history.hasNext()) {
+                CompensationHistory entry = history.next();
+                put(entry.getEmployeeId(), entry.getCompensationHistoryId(), entry.getEffectiveDate(), entry.getSalary());
+            }
+        }
+    }
+
+    private static final class Timeline {
+
+        static final Timeline EMPTY = new Timeline(new long[0], new String[0], new BigDecimal[0], new boolean[0]);
+
+        final long[] days;
+        final String[] ids;
+        final BigDecimal[] salaries;
+        // whether the entry is the current Compensation rather than a history row
+        final boolean[] current;
+
+        Timeline(long[] days, String[] ids, BigDecimal[] salaries, boolean[] current) {
+            this.days = days;
+            this.ids = ids;
+            this.salaries = salaries;
+            this.current = current;
+        }
+
+        // Position of the latest entry on or before the day, -1 when the timeline starts later
+        int floor(long day) {
+            int position = Arrays.binarySearch(days, day);
+            return position >= 0 ? position : -position - 2;
+        }
+
+        // Copy with the entry inserted in date order (or replaced, for an existing date - unless a history row would
+        // replace the current Compensation, which leaves the timeline as it is)
+        Timeline with(long day, String id, BigDecimal salary, boolean isCurrent) {
+            int position = Arrays.binarySearch(days, day);
+            if (position >= 0) {
+                if (current[position] && !isCurrent) {
+                    return this;
+                }
+                String[] newIds = ids.clone();
+                BigDecimal[] newSalaries = salaries.clone();
+                boolean[] newCurrent = current.clone();
+                newIds[position] = id;
+                newSalaries[position] = salary;
+                newCurrent[position] = isCurrent;
+                return new Timeline(days, newIds, newSalaries, newCurrent);
+            }
+
+            int insertion = -position - 1;
+            return new Timeline(insert(days, insertion, day), insert(ids, insertion, id), insert(salaries, insertion, salary),
+                    insert(current, insertion, isCurrent));
+        }
+
+        CompensationHistory toCompensationHistory(String employeeId, int position) {
+            return new CompensationHistory(ids[position], employeeId, salaries[position], LocalDate.ofEpochDay(days[position]));
+        }
+
+        private static long[] insert(long[] values, int position, long value) {
+            long[] copy = new long[values.length + 1];
+            System.arraycopy(values, 0, copy, 0, position);
+            copy[position] = value;
+            System.arraycopy(values, position, copy, position + 1, values.length - position);
+            return copy;
+        }
+
+        private static boolean[] insert(boolean[] values, int position, boolean value) {
+            boolean[] copy = new boolean[values.length + 1];
+            System.arraycopy(values, 0, copy, 0, position);
+            copy[position] = value;
+            System.arraycopy(values, position, copy, position + 1, values.length - position);
+            return copy;
+        }
+
+        private static <T> T[] insert(T[] values, int position, T value) {
+            T[] copy = Arrays.copyOf(values, values.length + 1);
+            System.arraycopy(values, position, copy, position + 1, values.length - position);
+            copy[position] = value;
+            return copy;
+        }
+    }
+}
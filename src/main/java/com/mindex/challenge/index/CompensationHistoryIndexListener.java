@@ -0,0 +1,33 @@
+package com.mindex.challenge.index;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+// Keeps the CompensationHistoryIndex in step with Compensation and CompensationHistory writes
+// The employee's current Compensation counts as one more entry of their timeline, ahead of history rows of the same date
+@Component
+public class CompensationHistoryIndexListener extends AbstractMongoEventListener<Object> {
+
+    @Autowired
+    private CompensationHistoryIndex compensationHistoryIndex;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object source = event.getSource();
+
+        if (source instanceof CompensationHistory) {
+            CompensationHistory entry = (CompensationHistory) source;
+            compensationHistoryIndex.put(entry.getEmployeeId(), entry.getCompensationHistoryId(), entry.getEffectiveDate(), entry.getSalary());
+        } else if (source instanceof Compensation) {
+            Compensation compensation = (Compensation) source;
+            if (compensation.getEmployee() != null) {
+                compensationHistoryIndex.putCurrent(compensation.getEmployee().getEmployeeId(), compensation.getCompensationId(),
+                        compensation.getEffectiveDate(), compensation.getSalary());
+            }
+        }
+    }
+}
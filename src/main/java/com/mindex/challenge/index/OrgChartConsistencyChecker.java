@@ -0,0 +1,96 @@
+package com.mindex.challenge.index;
+
+import com.mindex.challenge.dao.EmployeeRepositoryImpl;
+import com.mindex.challenge.dao.VersionStampListener;
+import com.mindex.challenge.data.OrgChartConsistencyReport;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Recomputes every report count from scratch and reports where the incrementally maintained counters drifted
+@Component
+public class OrgChartConsistencyChecker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrgChartConsistencyChecker.class);
+
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public OrgChartConsistencyReport check() {
+        long start = System.currentTimeMillis();
+
+        // Fresh graph straight from the database, so stale index entries show up as drift too
+        OrgChartIndex recomputed = load(mongoTemplate);
+
+        OrgChartConsistencyReport report = new OrgChartConsistencyReport();
+        // Both sides' employees - one only the live index still holds (gone from the database) is recounted as -1
+        Set<String> employeeIds = new LinkedHashSet<String>(recomputed.size());
+        recomputed.forEachReportCount((employeeId, reportCount) -> employeeIds.add(employeeId));
+        orgChartIndex.forEachReportCount((employeeId, reportCount) -> employeeIds.add(employeeId));
+
+        for (String employeeId : employeeIds) {
+            int storedCount = orgChartIndex.getReportCount(employeeId);
+            int actualCount = recomputed.countReports(employeeId);
+            if (storedCount != actualCount) {
+                report.getDrift().add(new OrgChartConsistencyReport.Drift(employeeId, storedCount, actualCount));
+            }
+        }
+
+        report.setCheckedEmployees(employeeIds.size());
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+
+        if (report.isConsistent()) {
+            LOG.info("Org chart consistent - checked [{}] employees in [{}] ms", report.getCheckedEmployees(), report.getElapsedMillis());
+        } else {
+            LOG.warn("Org chart drift found for [{}] of [{}] employees: {}", report.getDrift().size(), report.getCheckedEmployees(), report.getDrift());
+        }
+
+        return report;
+    }
+
+    // Builds an index from a single streamed scan of the Employee collection - DBRefs are read as ids, never resolved
+    public static OrgChartIndex load(MongoTemplate mongoTemplate) {
+        OrgChartIndex index = new OrgChartIndex();
+        load(mongoTemplate, index);
+        return index;
+    }
+
+    // Adds every stored employee to the given index, e.g. to rebuild the live index over a durable backend at start-up
+    public static void load(MongoTemplate mongoTemplate, OrgChartIndex index) {
+        Query query = new Query();
+        query.fields().include("_id").include("directReports").include(VersionStampListener.VERSION);
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class, EmployeeRepositoryImpl.COLLECTION)) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+
+                List<String> directReportIds = new ArrayList<String>();
+                List<?> directReports = (List<?>) document.get("directReports");
+                if (directReports != null) {
+                    for (Object directReport : directReports) {
+                        directReportIds.add(((DBRef) directReport).getId().toString());
+                    }
+                }
+
+                index.setDirectReports(document.getString("_id"), directReportIds);
+                Object version = document.get(VersionStampListener.VERSION);
+                if (version instanceof Number) {
+                    index.setVersion(document.getString("_id"), ((Number) version).longValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,553 @@
+package com.mindex.challenge.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+
+// Compact in-process copy of the management hierarchy
+// Each employeeId is mapped to an int node and children are held in primitive adjacency arrays,
+// so subtree traversals never touch the database or hydrate Employee objects.
+// Every node also keeps its total report count, adjusted along the ancestor chain on each write,
+// so numberOfReports is an O(1) lookup.
+// Likewise each node keeps the highest write version found in its subtree, which backs the reporting-structure ETag.
+@Component
+public class OrgChartIndex {
+
+    private static final int[] NO_CHILDREN = new int[0];
+    private static final int NO_PARENT = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Writes (create/update) are rare compared to reads, so a read/write lock keeps traversals concurrent
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> nodesById = new HashMap<String, Integer>();
+    private String[] idsByNode = new String[INITIAL_CAPACITY];
+    private int[][] children = new int[INITIAL_CAPACITY][];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    // total (direct and indirect) reports under each node
+    private int[] reportCounts = new int[INITIAL_CAPACITY];
+    // version of the employee's own last write, and the highest one in their subtree (themself included)
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private long[] subtreeVersions = new long[INITIAL_CAPACITY];
+    private int nodeCount;
+
+    // Replace the direct reports of an employee - reports that are not known yet get a placeholder node
+    // Only the report counts of the employee and their ancestor chain are adjusted
+    public void setDirectReports(String employeeId, Collection<String> directReportIds) {
+        lock.writeLock().lock();
+        try {
+            int node = nodeFor(employeeId);
+            int[] oldChildren = children[node];
+
+            int[] newChildren = NO_CHILDREN;
+            if (directReportIds != null && !directReportIds.isEmpty()) {
+                // a report listed twice is still one report
+                Set<String> distinctReportIds = new LinkedHashSet<String>(directReportIds);
+                newChildren = new int[distinctReportIds.size()];
+                int count = 0;
+                for (String reportId : distinctReportIds) {
+                    newChildren[count++] = nodeFor(reportId);
+                }
+            }
+
+            Set<Integer> oldChildSet = toSet(oldChildren);
+            Set<Integer> newChildSet = toSet(newChildren);
+            int delta = 0;
+            long addedSubtreeVersion = 0;
+            for (int child : oldChildren) {
+                if (!newChildSet.contains(child)) {
+                    delta -= reportCounts[child] + 1;
+                    if (parents[child] == node) {
+                        parents[child] = NO_PARENT;
+                    }
+                }
+            }
+            for (int child : newChildren) {
+                if (!oldChildSet.contains(child)) {
+                    // a report moved over from another manager leaves that manager first, so children and parents agree
+                    if (parents[child] != NO_PARENT && parents[child] != node) {
+                        detach(child);
+                    }
+                    delta += reportCounts[child] + 1;
+                    addedSubtreeVersion = Math.max(addedSubtreeVersion, subtreeVersions[child]);
+                    parents[child] = node;
+                }
+            }
+
+            children[node] = newChildren;
+            if (delta != 0) {
+                adjustReportCounts(node, delta);
+            }
+            // an adopted report may carry newer writes than anything under their new managers so far
+            if (addedSubtreeVersion > 0) {
+                raiseSubtreeVersions(node, addedSubtreeVersion);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Records the version of an employee's latest write - also the newest version for every manager above them
+    public void setVersion(String employeeId, long version) {
+        lock.writeLock().lock();
+        try {
+            int node = nodeFor(employeeId);
+            versions[node] = version;
+            raiseSubtreeVersions(node, version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Version of the employee's own latest write - 0 when unknown
+    public long getVersion(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesById.get(employeeId);
+            return node == null ? 0 : versions[node];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Highest version of any write to the employee or anyone below them - 0 when unknown
+    public long getSubtreeVersion(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesById.get(employeeId);
+            return node == null ? 0 : subtreeVersions[node];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String employeeId) {
+        lock.readLock().lock();
+        try {
+            return nodesById.containsKey(employeeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getDirectReports(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesById.get(employeeId);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+
+            List<String> reportIds = new ArrayList<String>(children[node].length);
+            for (int child : children[node]) {
+                reportIds.add(idsByNode[child]);
+            }
+            return reportIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Management chain above an employee, nearest manager first - empty when the employee has no (known) manager
+    public List<String> getManagers(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesById.get(employeeId);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+
+            // bounded by the node count, so a cycle in bad data can't spin forever
+            List<String> managerIds = new ArrayList<String>();
+            for (int current = parents[node]; current != NO_PARENT && current != node && managerIds.size() < nodeCount; current = parents[current]) {
+                managerIds.add(idsByNode[current]);
+            }
+            return managerIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Why the employee can't take on these direct reports, or null when they can - nobody reports to themself or to
+    // anyone below them (a cycle), and every report has a single manager
+    // Only the employee's management chain is walked, never their subtree
+    public String checkDirectReports(String employeeId, Collection<String> directReportIds) {
+        if (directReportIds == null || directReportIds.isEmpty()) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            Integer node = nodesById.get(employeeId);
+            int managerNode = node == null ? NO_PARENT : node;
+
+            // stops at the first manager seen twice, so a cycle already in bad data can't spin forever
+            Set<Integer> managers = new HashSet<Integer>();
+            if (node != null) {
+                int current = parents[node];
+                while (current != NO_PARENT && current != node && managers.add(current)) {
+                    current = parents[current];
+                }
+            }
+
+            for (String reportId : directReportIds) {
+                if (reportId.equals(employeeId)) {
+                    return "Employee " + employeeId + " cannot report to themself";
+                }
+                Integer report = nodesById.get(reportId);
+                if (report == null) {
+                    continue;
+                }
+                if (managers.contains(report)) {
+                    return "Employee " + reportId + " manages " + employeeId + " and cannot also report to them";
+                }
+                if (parents[report] != NO_PARENT && parents[report] != managerNode) {
+                    return "Employee " + reportId + " already reports to " + idsByNode[parents[report]];
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // An employee on a management cycle (someone who ends up managing themself), or null when the hierarchy is a forest
+    // Every parent chain is walked at most once, so the whole check is linear in the node count
+    public String findCycle() {
+        lock.readLock().lock();
+        try {
+            // 0 = not walked yet, -1 = known to end at a top manager, otherwise 1 + the node whose walk passed here
+            int[] walkedFrom = new int[nodeCount];
+            for (int start = 0; start < nodeCount; start++) {
+                int current = start;
+                while (current != NO_PARENT && walkedFrom[current] == 0) {
+                    walkedFrom[current] = start + 1;
+                    current = parents[current];
+                }
+                if (current != NO_PARENT && walkedFrom[current] == start + 1) {
+                    return idsByNode[current];
+                }
+
+                for (current = start; current != NO_PARENT && walkedFrom[current] == start + 1; current = parents[current]) {
+                    walkedFrom[current] = -1;
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Maintained total report count, O(1) - returns -1 when the employee is not indexed
+    public int getReportCount(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesById.get(employeeId);
+            return node == null ? -1 : reportCounts[node];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Visits every indexed employee with their maintained report count
+    public void forEachReportCount(ObjIntConsumer<String> action) {
+        lock.readLock().lock();
+        try {
+            for (int node = 0; node < nodeCount; node++) {
+                action.accept(idsByNode[node], reportCounts[node]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Recount by Breadth First Search over the adjacency arrays - returns -1 when the employee is not indexed
+    public int countReports(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer root = nodesById.get(employeeId);
+            if (root == null) {
+                return -1;
+            }
+
+            // the queue grows with the subtree, never sized by the whole index
+            int[] queue = new int[16];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+
+            while (head < tail) {
+                int node = queue[head++];
+                for (int child : children[node]) {
+                    if (isReport(child, node, root)) {
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail * 2);
+                        }
+                        queue[tail++] = child;
+                    }
+                }
+            }
+
+            // everyone enqueued except the employee themself
+            return tail - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One page of the subtree in Breadth First order, at most maxDepth levels below the employee (1 = direct reports)
+    // The page starts after the report at path after (child positions from the employee down, see ReportPage.next)
+    // or at the first report when after is null - one level at a time, left to right, so a page resumes where the last
+    // one stopped and holds only the page plus a path as long as the tree is deep, whichever page it is
+    // Returns null when the employee is not indexed
+    public ReportPage getReports(String employeeId, int maxDepth, int[] after, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer root = nodesById.get(employeeId);
+            if (root == null) {
+                return null;
+            }
+
+            ReportPage page = new ReportPage(limit);
+            int depth = after == null || after.length == 0 ? 1 : after.length;
+            int[] resume = after == null || after.length == 0 ? null : after;
+            // a level with no reports at all ends the walk - nobody can be below it
+            while (depth <= maxDepth && !page.more && (walkLevel(root, depth, resume, page) || resume != null)) {
+                depth++;
+                resume = null;
+            }
+            if (!page.more) {
+                page.next = null;
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every report below the employee in Breadth First order - null when the employee is not indexed
+    public List<String> getAllReports(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer root = nodesById.get(employeeId);
+            if (root == null) {
+                return null;
+            }
+
+            List<Integer> queue = new ArrayList<Integer>();
+            queue.add(root);
+            List<String> reportIds = new ArrayList<String>();
+            for (int head = 0; head < queue.size(); head++) {
+                int node = queue.get(head);
+                for (int child : children[node]) {
+                    if (isReport(child, node, root)) {
+                        queue.add(child);
+                        reportIds.add(idsByNode[child]);
+                    }
+                }
+            }
+            return reportIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One page of report ids, plus where the next page starts
+    public static class ReportPage {
+        private final int limit;
+        private final List<String> reportIds = new ArrayList<String>();
+        private int[] next;
+        // a report was found beyond the page
+        private boolean more;
+
+        ReportPage(int limit) {
+            this.limit = limit;
+        }
+
+        public List<String> getReportIds() {
+            return reportIds;
+        }
+
+        // Path of the page's last report, to pass back as after - null on the last page
+        public int[] getNext() {
+            return next;
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            nodesById.clear();
+            idsByNode = new String[INITIAL_CAPACITY];
+            children = new int[INITIAL_CAPACITY][];
+            parents = new int[INITIAL_CAPACITY];
+            reportCounts = new int[INITIAL_CAPACITY];
+            versions = new long[INITIAL_CAPACITY];
+            subtreeVersions = new long[INITIAL_CAPACITY];
+            nodeCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private int nodeFor(String employeeId) {
+        Integer existing = nodesById.get(employeeId);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (nodeCount == idsByNode.length) {
+            int capacity = idsByNode.length * 2;
+            idsByNode = Arrays.copyOf(idsByNode, capacity);
+            children = Arrays.copyOf(children, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            reportCounts = Arrays.copyOf(reportCounts, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            subtreeVersions = Arrays.copyOf(subtreeVersions, capacity);
+        }
+
+        int node = nodeCount++;
+        idsByNode[node] = employeeId;
+        children[node] = NO_CHILDREN;
+        parents[node] = NO_PARENT;
+        reportCounts[node] = 0;
+        versions[node] = 0;
+        subtreeVersions[node] = 0;
+        nodesById.put(employeeId, node);
+        return node;
+    }
+
+    // Caller must hold the read lock
+    // Adds the reports exactly depth levels below root to the page, left to right - after the path resume when given
+    // Depth first with a stack of child positions, so memory is bounded by depth, not by the width of the level
+    // Returns whether the walk met any report at that depth
+    private boolean walkLevel(int root, int depth, int[] resume, ReportPage page) {
+        int[] nodes = new int[depth];
+        int[] positions = new int[depth];
+        nodes[0] = root;
+        int level = 0;
+        if (resume != null) {
+            // back down the path - a step a write has since removed just continues after it on that level
+            while (level < depth - 1 && resume[level] >= 0 && resume[level] < children[nodes[level]].length
+                    && isReport(children[nodes[level]][resume[level]], nodes[level], root)) {
+                positions[level] = resume[level] + 1;
+                nodes[level + 1] = children[nodes[level]][resume[level]];
+                level++;
+            }
+            positions[level] = Math.max(resume[level] + 1, 0);
+        }
+
+        boolean found = false;
+        while (level >= 0) {
+            int[] reports = children[nodes[level]];
+            int position = positions[level];
+            while (position < reports.length && !isReport(reports[position], nodes[level], root)) {
+                position++;
+            }
+            if (position == reports.length) {
+                level--;
+                continue;
+            }
+
+            positions[level] = position + 1;
+            if (level < depth - 1) {
+                nodes[level + 1] = reports[position];
+                positions[level + 1] = 0;
+                level++;
+                continue;
+            }
+
+            found = true;
+            if (page.reportIds.size() == page.limit) {
+                // a report beyond the page - the next page starts after the current last one
+                page.more = true;
+                return true;
+            }
+            page.reportIds.add(idsByNode[reports[position]]);
+            if (page.reportIds.size() == page.limit) {
+                page.next = new int[depth];
+                for (int i = 0; i < depth; i++) {
+                    page.next[i] = positions[i] - 1;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    // Caller must hold the read lock
+    // Reports are followed only from the manager recorded in parents, so someone listed under two managers is visited
+    // once and a cycle back to the root ends the walk - no visited set needed
+    private boolean isReport(int child, int manager, int root) {
+        return parents[child] == manager && child != root;
+    }
+
+    // Caller must hold the write lock
+    // Takes the node out of their manager's direct reports, along with their report counts up the manager's chain
+    // Subtree versions stay - they only ever grow, so the old managers at worst see one extra ETag change
+    private void detach(int node) {
+        int parent = parents[node];
+        int[] siblings = children[parent];
+        int[] remaining = new int[siblings.length];
+        int count = 0;
+        for (int sibling : siblings) {
+            if (sibling != node) {
+                remaining[count++] = sibling;
+            }
+        }
+        children[parent] = count == 0 ? NO_CHILDREN : Arrays.copyOf(remaining, count);
+        parents[node] = NO_PARENT;
+        adjustReportCounts(parent, -(reportCounts[node] + 1));
+    }
+
+    // Caller must hold the write lock
+    // Walks up the parent chain - bounded by the node count so a cycle in bad data can't spin forever, and stopped
+    // once back at the node, so a cycle through it adds the delta around the cycle once rather than until the bound
+    private void adjustReportCounts(int node, int delta) {
+        int steps = 0;
+        for (int current = node; current != NO_PARENT && steps <= nodeCount && (steps == 0 || current != node); current = parents[current]) {
+            reportCounts[current] += delta;
+            steps++;
+        }
+    }
+
+    // Caller must hold the write lock
+    // Versions only ever grow, so the walk stops at the first manager that already has a newer one
+    private void raiseSubtreeVersions(int node, long version) {
+        int steps = 0;
+        for (int current = node; current != NO_PARENT && steps <= nodeCount && subtreeVersions[current] < version; current = parents[current]) {
+            subtreeVersions[current] = version;
+            steps++;
+        }
+    }
+
+    private static Set<Integer> toSet(int[] nodes) {
+        Set<Integer> set = new HashSet<Integer>(nodes.length * 2);
+        for (int node : nodes) {
+            set.add(node);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,36 @@
+package com.mindex.challenge.index;
+
+import com.mindex.challenge.data.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps the OrgChartIndex in step with every Employee write that goes through MongoTemplate
+// (service create/update, DataBootstrap and repository saves alike)
+@Component
+public class OrgChartIndexListener extends AbstractMongoEventListener<Employee> {
+
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Employee> event) {
+        Employee employee = event.getSource();
+
+        List<String> directReportIds = new ArrayList<String>();
+        if (employee.getDirectReports() != null) {
+            for (Employee report : employee.getDirectReports()) {
+                directReportIds.add(report.getEmployeeId());
+            }
+        }
+
+        orgChartIndex.setDirectReports(employee.getEmployeeId(), directReportIds);
+        if (employee.getVersion() != null) {
+            orgChartIndex.setVersion(employee.getEmployeeId(), employee.getVersion());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.data.QueryTrace;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+
+import java.util.List;
+
+// Counts (and traces) the DBRefs the mapping layer resolves for the current request - a hydrated Employee resolves
+// one per report in its subtree, which is what mongodb.request.dbref.resolutions makes visible
+public class CountingDbRefResolver extends DefaultDbRefResolver {
+
+    public CountingDbRefResolver(MongoDatabaseFactory mongoDatabaseFactory) {
+        super(mongoDatabaseFactory);
+    }
+
+    @Override
+    public Document fetch(DBRef dbRef) {
+        MongoRequestCounters.dbRefResolutions(1);
+        long start = System.nanoTime();
+        Document document = super.fetch(dbRef);
+        RequestTracing.record(QueryTrace.DBREF, dbRef.getCollectionName(), start, System.nanoTime() - start);
+        return document;
+    }
+
+    @Override
+    public List<Document> bulkFetch(List<DBRef> refs) {
+        MongoRequestCounters.dbRefResolutions(refs.size());
+        long start = System.nanoTime();
+        List<Document> documents = super.bulkFetch(refs);
+        if (!refs.isEmpty()) {
+            RequestTracing.record(QueryTrace.DBREF, refs.get(0).getCollectionName() + " x" + refs.size(), start, System.nanoTime() - start);
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,67 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.data.QueryTrace;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.concurrent.TimeUnit;
+
+// Times every command the Mongo driver sends (mongodb.driver.commands, tagged with the command and its outcome)
+// and counts and traces it for the current request - the sync driver calls listeners on the thread that sent the command
+public class MongoCommandMetrics implements CommandListener {
+
+    public static final String COMMANDS = "mongodb.driver.commands";
+
+    private final MeterRegistry meterRegistry;
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        MongoRequestCounters.command();
+        if (RequestTracing.isActive()) {
+            RequestTracing.commandStarted(event.getRequestId(), traceName(event.getCommandName(), event.getCommand()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event.getRequestId(), event.getCommandName(), "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getRequestId(), event.getCommandName(), "failed", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(int requestId, String command, String status, long elapsedNanos) {
+        String traceName = RequestTracing.commandFinished(requestId);
+        if (traceName != null) {
+            RequestTracing.record(QueryTrace.COMMAND, traceName, System.nanoTime() - elapsedNanos, elapsedNanos);
+        }
+
+        Timer.builder(COMMANDS)
+                .description("Commands sent to Mongo")
+                .tag("command", command)
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // e.g. "find Employee" - the collection is the value of the command name key, or of "collection" for getMore
+    private static String traceName(String command, BsonDocument document) {
+        BsonValue collection = document.get(command);
+        if (collection == null || !collection.isString()) {
+            collection = document.get("collection");
+        }
+        return collection != null && collection.isString() ? command + " " + collection.asString().getValue() : command;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mindex.challenge.metrics;
+
+// Mongo commands and DBRef resolutions of the request on the current thread
+// Reset by RequestMongoMetricsFilter at the start and end of every request - counts from other threads
+// (start-up, the org-cost fork/join pool, the reactive driver) are never recorded
+final class MongoRequestCounters {
+
+    private static final ThreadLocal<long[]> COUNTERS = ThreadLocal.withInitial(() -> new long[2]);
+
+    private static final int COMMANDS = 0;
+    private static final int DB_REF_RESOLUTIONS = 1;
+
+    private MongoRequestCounters() {
+    }
+
+    static void command() {
+        COUNTERS.get()[COMMANDS]++;
+    }
+
+    static void dbRefResolutions(int count) {
+        COUNTERS.get()[DB_REF_RESOLUTIONS] += count;
+    }
+
+    static long commands() {
+        return COUNTERS.get()[COMMANDS];
+    }
+
+    static long dbRefResolutions() {
+        return COUNTERS.get()[DB_REF_RESOLUTIONS];
+    }
+
+    static void reset() {
+        COUNTERS.remove();
+    }
+}
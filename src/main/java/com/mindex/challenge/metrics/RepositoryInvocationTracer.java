@@ -0,0 +1,33 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.data.QueryTrace;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Adds every repository method call (custom fragments included) to the trace of the current request
+// Hooked into each repository factory bean, the same way Boot's spring.data.repository.invocations metrics are
+@Component
+public class RepositoryInvocationTracer implements BeanPostProcessor {
+
+    private static final RepositoryMethodInvocationListener LISTENER = invocation -> {
+        if (RequestTracing.isActive()) {
+            long elapsedNanos = invocation.getDuration(TimeUnit.NANOSECONDS);
+            RequestTracing.record(QueryTrace.REPOSITORY,
+                    invocation.getRepositoryInterface().getSimpleName() + "." + invocation.getMethod().getName(),
+                    System.nanoTime() - elapsedNanos, elapsedNanos);
+        }
+    };
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                    repositoryFactory -> repositoryFactory.addInvocationListener(LISTENER));
+        }
+        return bean;
+    }
+}
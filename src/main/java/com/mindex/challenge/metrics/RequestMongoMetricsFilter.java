@@ -0,0 +1,78 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.config.ReactiveMongoConfig;
+import com.mindex.challenge.data.RequestTrace;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+
+// Records the Mongo commands (mongodb.request.commands) and DBRef resolutions (mongodb.request.dbref.resolutions)
+// of every servlet request, tagged with the method and URI pattern like http.server.requests
+// and hands the request's trace of repository calls, commands and DBRef fetches to the RequestTraceBuffer
+@Profile("!" + ReactiveMongoConfig.REACTIVE_PROFILE)
+@Component
+public class RequestMongoMetricsFilter extends OncePerRequestFilter {
+
+    public static final String COMMANDS = "mongodb.request.commands";
+    public static final String DB_REF_RESOLUTIONS = "mongodb.request.dbref.resolutions";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RequestTraceBuffer requestTraceBuffer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MongoRequestCounters.reset();
+        if (requestTraceBuffer.isEnabled()) {
+            RequestTrace trace = new RequestTrace();
+            trace.setMethod(request.getMethod());
+            trace.setUri(request.getQueryString() == null ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString());
+            trace.setStartedAt(Instant.now());
+            RequestTracing.start(trace, requestTraceBuffer.getMaxQueries());
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString());
+
+            DistributionSummary.builder(COMMANDS)
+                    .description("Mongo commands sent per request")
+                    .baseUnit("commands")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(MongoRequestCounters.commands());
+            DistributionSummary.builder(DB_REF_RESOLUTIONS)
+                    .description("DBRefs resolved per request")
+                    .baseUnit("references")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(MongoRequestCounters.dbRefResolutions());
+
+            RequestTrace trace = RequestTracing.finish();
+            if (trace != null) {
+                trace.setStatus(response.getStatus());
+                trace.setCommands(MongoRequestCounters.commands());
+                trace.setDbRefResolutions(MongoRequestCounters.dbRefResolutions());
+                requestTraceBuffer.add(trace);
+            }
+
+            MongoRequestCounters.reset();
+        }
+    }
+}
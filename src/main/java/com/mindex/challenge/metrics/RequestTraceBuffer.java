@@ -0,0 +1,63 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.data.RequestTrace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// The last diagnostics.trace.capacity request traces, each new one overwriting the oldest
+// Lock-free: a request claims a slot with one atomic increment and publishes its (then immutable) trace with a volatile
+// write - readers copy whatever the slots hold at that moment
+@Component
+public class RequestTraceBuffer {
+
+    @Value("${diagnostics.trace.enabled:true}")
+    private boolean enabled;
+
+    @Value("${diagnostics.trace.capacity:1024}")
+    private int capacity;
+
+    // Queries kept per trace - a hydrated read of a large subtree resolves a DBRef per report
+    @Value("${diagnostics.trace.max-queries:256}")
+    private int maxQueries;
+
+    private AtomicReferenceArray<RequestTrace> traces;
+    private final AtomicLong recorded = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        traces = new AtomicReferenceArray<RequestTrace>(capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxQueries() {
+        return maxQueries;
+    }
+
+    public void add(RequestTrace trace) {
+        traces.set((int) (recorded.getAndIncrement() % capacity), trace);
+    }
+
+    // The slowest of the buffered traces, slowest first
+    public List<RequestTrace> getSlowest(int limit) {
+        List<RequestTrace> slowest = new ArrayList<RequestTrace>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            RequestTrace trace = traces.get(i);
+            if (trace != null) {
+                slowest.add(trace);
+            }
+        }
+
+        slowest.sort(Comparator.comparingLong(RequestTrace::getDurationMicros).reversed());
+        return slowest.size() > limit ? new ArrayList<RequestTrace>(slowest.subList(0, limit)) : slowest;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mindex.challenge.metrics;
+
+import com.mindex.challenge.data.QueryTrace;
+import com.mindex.challenge.data.RequestTrace;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The trace of the request on the current thread, started and finished by RequestMongoMetricsFilter
+// Recording is a no-op on threads without a traced request
+final class RequestTracing {
+
+    private static final ThreadLocal<ActiveTrace> ACTIVE = new ThreadLocal<ActiveTrace>();
+
+    private RequestTracing() {
+    }
+
+    static void start(RequestTrace trace, int maxQueries) {
+        ACTIVE.set(new ActiveTrace(trace, System.nanoTime(), maxQueries));
+    }
+
+    static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+
+    static void record(String type, String name, long startNanos, long elapsedNanos) {
+        ActiveTrace active = ACTIVE.get();
+        if (active == null) {
+            return;
+        }
+
+        RequestTrace trace = active.trace;
+        if (trace.getQueries().size() >= active.maxQueries) {
+            trace.setDroppedQueries(trace.getDroppedQueries() + 1);
+            return;
+        }
+        trace.getQueries().add(new QueryTrace(type, name, (startNanos - active.startNanos) / 1000, elapsedNanos / 1000));
+    }
+
+    // Mongo commands report their collection when they start and their duration when they finish
+    static void commandStarted(int requestId, String name) {
+        ActiveTrace active = ACTIVE.get();
+        if (active != null) {
+            active.pendingCommands.put(requestId, name);
+        }
+    }
+
+    static String commandFinished(int requestId) {
+        ActiveTrace active = ACTIVE.get();
+        return active == null ? null : active.pendingCommands.remove(requestId);
+    }
+
+    // The finished trace with its duration set, or null when none was started
+    static RequestTrace finish() {
+        ActiveTrace active = ACTIVE.get();
+        if (active == null) {
+            return null;
+        }
+        ACTIVE.remove();
+
+        active.trace.setDurationMicros((System.nanoTime() - active.startNanos) / 1000);
+        return active.trace;
+    }
+
+    private static class ActiveTrace {
+        private final RequestTrace trace;
+        private final long startNanos;
+        private final int maxQueries;
+        private final Map<Integer, String> pendingCommands = new HashMap<Integer, String>();
+
+        ActiveTrace(RequestTrace trace, long startNanos, int maxQueries) {
+            this.trace = trace;
+            this.startNanos = startNanos;
+            this.maxQueries = maxQueries;
+        }
+    }
+}
@@ -1,14 +1,38 @@
 package com.mindex.challenge.service;
 
+import com.mindex.challenge.data.BatchCreateResult;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationHistory;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.data.OrgCost;
 import com.mindex.challenge.data.ReportingStructure;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 public interface EmployeeService {
     Employee create(Employee employee);
+    BatchCreateResult createBatch(List<Employee> employees, Integer batchSize);
+    long export(OutputStream output) throws IOException;
     Compensation createCompensation(Compensation compensation);
+    CompensationHistory createCompensationHistory(CompensationHistory compensationHistory);
     Employee read(String id);
+    EmployeeSummary readSummary(String id);
+    long readVersion(String id);
+    long readSubtreeVersion(String id);
     ReportingStructure readReports(Employee employee);
+    ReportingStructure readReports(Employee employee, ReportTraversalStrategy strategy);
+    ReportingStructure readReportsPage(String id, Integer maxDepth, Integer pageSize, String cursor);
+    EmployeePage readPage(String department, String position, Integer pageSize, String cursor);
     Compensation readCompensation(String id);
+    OrgCost readOrgCost(String id);
+    CompensationHistory readCompensationAsOf(String id, LocalDate asOf);
+    List<CompensationHistory> readCompensationHistory(String id);
     Employee update(Employee employee);
+    EmployeeSummary patch(String id, Map<String, Object> fields);
 }
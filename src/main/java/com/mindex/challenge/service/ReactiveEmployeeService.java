@@ -0,0 +1,26 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.data.ReportingStructure;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Non-blocking variant of the EmployeeService read/create/update paths, backing ReactiveEmployeeController
+public interface ReactiveEmployeeService {
+    Mono<Employee> create(Employee employee);
+    Mono<Compensation> createCompensation(String id, Compensation compensation);
+    Mono<EmployeeSummary> readSummary(String id);
+    long readVersion(String id);
+    long readSubtreeVersion(String id);
+    Mono<ReportingStructure> readReports(String id, ReportTraversalStrategy strategy);
+    Mono<ReportingStructure> readReportsPage(String id, Integer maxDepth, Integer pageSize, String cursor);
+    Mono<Compensation> readCompensation(String id);
+    Mono<EmployeePage> readPage(String department, String position, Integer pageSize, String cursor);
+    Mono<Employee> update(Employee employee);
+    Mono<EmployeeSummary> patch(String id, Map<String, Object> fields);
+}
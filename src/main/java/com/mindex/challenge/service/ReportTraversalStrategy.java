@@ -0,0 +1,11 @@
+package com.mindex.challenge.service;
+
+// How EmployeeService.readReports finds the reports below an employee
+public enum ReportTraversalStrategy {
+    // in-memory org chart index, no database access
+    INDEX,
+    // single $graphLookup aggregation round trip
+    GRAPH_LOOKUP,
+    // Breadth First Search over the hydrated directReports
+    BFS
+}
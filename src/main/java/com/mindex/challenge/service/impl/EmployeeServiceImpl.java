@@ -1,71 +1,328 @@
 package com.mindex.challenge.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mindex.challenge.cache.EmployeeCache;
+import com.mindex.challenge.dao.CompensationHistoryRepository;
 import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.EmployeeRepositoryImpl;
+import com.mindex.challenge.dao.VersionStampListener;
+import com.mindex.challenge.data.BatchCreateResult;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationHistory;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.data.OrgCost;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.index.CompensationHistoryIndex;
+import com.mindex.challenge.index.OrgChartIndex;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReportTraversalStrategy;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeServiceImpl.class);
 
+    static final String TRAVERSAL = "employee.reports.traversal";
+    static final String TRAVERSAL_NODES = "employee.reports.traversal.nodes";
+
+    // Fields PATCH /employee/{id} may $set - the id and version are never taken from the client
+    private static final Set<String> PATCHABLE_FIELDS = new HashSet<String>(Arrays.asList(
+    		"firstName", "lastName", "position", "department", EmployeeRepositoryImpl.DIRECT_REPORTS));
+
     @Autowired
     private EmployeeRepository employeeRepository;
     
     @Autowired
     private CompensationRepository compensationRepository;
 
+    @Autowired
+    private CompensationHistoryRepository compensationHistoryRepository;
+
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Autowired
+    private CompensationHistoryIndex compensationHistoryIndex;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private VersionStampListener versionStampListener;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Serializes the hierarchy check with the write it guards - a ReentrantLock rather than synchronized, which would
+    // pin a virtual thread to its carrier for the whole Mongo round trip
+    private final Lock hierarchyLock = new ReentrantLock();
+
+    @Value("${employee.reports.traversal-strategy:INDEX}")
+    private ReportTraversalStrategy defaultTraversalStrategy;
+
+    @Value("${employee.batch.size:1000}")
+    private int defaultBatchSize;
+
+    @Value("${employee.reports.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${employee.reports.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${employee.org-cost.parallel-threshold:50000}")
+    private int orgCostParallelThreshold;
+
     @Override
     public Employee create(Employee employee) {
         LOG.debug("Creating employee [{}]", employee);
 
         employee.setEmployeeId(UUID.randomUUID().toString());
-        employeeRepository.insert(employee);
+        writeHierarchy(employee.getEmployeeId(), toDirectReportIds(employee), () -> employeeRepository.insert(employee));
 
         return employee;
     }
     
+    @Override
+    public BatchCreateResult createBatch(List<Employee> employees, Integer batchSize) {
+        int size = batchSize == null ? defaultBatchSize : batchSize;
+        if (size < 1) {
+        	// Respond with proper entity Bad Request 400
+            throw new ResponseStatusException(
+            	HttpStatus.BAD_REQUEST, "batchSize must be at least 1"
+            );
+        }
+        LOG.debug("Creating [{}] employees in batches of [{}]", employees.size(), size);
+
+        long start = System.nanoTime();
+        BatchCreateResult result = new BatchCreateResult();
+        result.setRequested(employees.size());
+        result.setBatchSize(size);
+
+        List<Employee> batch = new ArrayList<Employee>(Math.min(size, employees.size()));
+        List<Integer> batchIndexes = new ArrayList<Integer>(Math.min(size, employees.size()));
+        // reports taken by earlier employees of the request, including ones whose insert failed
+        Set<String> claimedReportIds = new HashSet<String>();
+        for (int from = 0; from < employees.size(); from += size) {
+        	int to = Math.min(from + size, employees.size());
+        	// this batch's results by position, each set once known - added to the result only when all of them are
+        	BatchCreateResult.Item[] items = new BatchCreateResult.Item[to - from];
+
+        	// One batch's checks and insert at a time under the hierarchy lock, so other hierarchy writes wait for at most
+        	// one insertMany rather than the whole request
+        	hierarchyLock.lock();
+        	try {
+        		for (int index = from; index < to; index++) {
+        			Employee employee = employees.get(index);
+        			if (employee == null) {
+        				items[index - from] = new BatchCreateResult.Item(index, null, BatchCreateResult.FAILED, "Empty employee");
+        				continue;
+        			}
+
+        			employee.setEmployeeId(UUID.randomUUID().toString());
+        			Set<String> directReportIds = new LinkedHashSet<String>(toDirectReportIds(employee));
+        			String violation = orgChartIndex.checkDirectReports(employee.getEmployeeId(), directReportIds);
+        			for (String directReportId : directReportIds) {
+        				if (violation == null && claimedReportIds.contains(directReportId)) {
+        					violation = "Employee " + directReportId + " is a direct report of another employee in the batch";
+        				}
+        			}
+        			if (violation != null) {
+        				items[index - from] = new BatchCreateResult.Item(index, null, BatchCreateResult.FAILED, violation);
+        				continue;
+        			}
+        			claimedReportIds.addAll(directReportIds);
+
+        			batch.add(employee);
+        			batchIndexes.add(index);
+        		}
+        		for (BatchCreateResult.Item item : insertBatch(batch, batchIndexes)) {
+        			items[item.getIndex() - from] = item;
+        		}
+        	} finally {
+        		hierarchyLock.unlock();
+        	}
+        	result.getItems().addAll(Arrays.asList(items));
+        }
+
+        for (BatchCreateResult.Item item : result.getItems()) {
+        	if (BatchCreateResult.CREATED.equals(item.getStatus())) {
+        		result.setCreated(result.getCreated() + 1);
+        	} else {
+        		result.setFailed(result.getFailed() + 1);
+        	}
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(elapsedNanos / 1000000);
+        result.setEmployeesPerSecond(elapsedNanos == 0 ? 0 : result.getCreated() * 1e9 / elapsedNanos);
+        LOG.debug("Batch create finished [{}]", result);
+
+        return result;
+    }
+
+    @Override
+    public long export(OutputStream output) throws IOException {
+        LOG.debug("Exporting employees");
+
+        AtomicLong count = new AtomicLong();
+        // One JSON object per line, written as each document comes off the cursor - only the generator's buffer is held,
+        // flushed when it fills rather than after every employee
+        try (SequenceWriter writer = objectMapper.writerFor(EmployeeSummary.class)
+        		.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        		.withRootValueSeparator("\n")
+        		.writeValues(output)) {
+        	employeeRepository.forEachSummary(summary -> {
+        		try {
+        			writer.write(summary);
+        			count.incrementAndGet();
+        		} catch (IOException e) {
+        			// e.g. the client went away - stops the cursor
+        			throw new UncheckedIOException(e);
+        		}
+        	});
+        	if (count.get() > 0) {
+        		writer.flush();
+        		output.write('\n');
+        	}
+        } catch (UncheckedIOException e) {
+        	throw e.getCause();
+        }
+
+        LOG.debug("Exported [{}] employees", count.get());
+        return count.get();
+    }
+
+    // One bulk insertMany per batch - falls back to single inserts only to find out which items failed
+    // Returns one item per employee of the batch - any exception, not only a database one, ends up as a FAILED item
+    private List<BatchCreateResult.Item> insertBatch(List<Employee> batch, List<Integer> batchIndexes) {
+        List<BatchCreateResult.Item> items = new ArrayList<BatchCreateResult.Item>(batch.size());
+        if (batch.isEmpty()) {
+        	return items;
+        }
+
+        try {
+        	employeeRepository.insert(batch);
+        	for (int i = 0; i < batch.size(); i++) {
+        		items.add(new BatchCreateResult.Item(batchIndexes.get(i), batch.get(i).getEmployeeId(), BatchCreateResult.CREATED, null));
+        	}
+        } catch (RuntimeException batchException) {
+        	LOG.debug("Batch insert failed, retrying [{}] employees one at a time", batch.size(), batchException);
+        	for (int i = 0; i < batch.size(); i++) {
+        		Employee employee = batch.get(i);
+        		BatchCreateResult.Item item;
+        		try {
+        			// already written by the partial batch, or inserted now
+        			if (!employeeRepository.existsById(employee.getEmployeeId())) {
+        				employeeRepository.insert(employee);
+        			}
+        			item = new BatchCreateResult.Item(batchIndexes.get(i), employee.getEmployeeId(), BatchCreateResult.CREATED, null);
+        		} catch (RuntimeException e) {
+        			item = new BatchCreateResult.Item(batchIndexes.get(i), null, BatchCreateResult.FAILED, e.getMessage());
+        		}
+        		items.add(item);
+        	}
+        }
+
+        batch.clear();
+        batchIndexes.clear();
+        return items;
+    }
+    
     @Override
     public Compensation createCompensation(Compensation compensation) {
         compensation.setCompensationId(UUID.randomUUID().toString());
-        
-        // Check if Compensation already exists by employeeID
-        // Prevents multiple Compensation entities per employee
         String employeeId = compensation.getEmployee().getEmployeeId();
-        Compensation existingCompensation = compensationRepository.findByEmployee_EmployeeId(employeeId);
-        
-        if (existingCompensation != null) {
+     
+        LOG.debug("Creating compensation [{}] with employeeId [{}]", compensation, employeeId);
+        try {
+        	// Single round trip - the unique index on employeeId prevents multiple Compensation entities per employee,
+        	// even for concurrent requests
+        	compensationRepository.insert(compensation);
+        } catch (DuplicateKeyException e) {
         	// Respond with proper entity Conflict 409
             throw new ResponseStatusException(
             	HttpStatus.CONFLICT, "Compensation already exists for employeeId: " + employeeId
             );
         }
-     
-        LOG.debug("Creating compensation [{}] with employeeId [{}]", compensation, compensation.getEmployee().getEmployeeId());
-        compensationRepository.insert(compensation);
 
         return compensation;
     }
 
+    @Override
+    public CompensationHistory createCompensationHistory(CompensationHistory compensationHistory) {
+        if (compensationHistory.getSalary() == null || compensationHistory.getEffectiveDate() == null) {
+        	// Respond with proper entity Bad Request 400
+            throw new ResponseStatusException(
+            	HttpStatus.BAD_REQUEST, "salary and effectiveDate are required"
+            );
+        }
+
+        compensationHistory.setCompensationHistoryId(UUID.randomUUID().toString());
+
+        LOG.debug("Creating compensation history [{}]", compensationHistory);
+        try {
+        	// the unique index on employeeId + effectiveDate rejects a second entry for the same date
+        	compensationHistoryRepository.insert(compensationHistory);
+        } catch (DuplicateKeyException e) {
+        	// Respond with proper entity Conflict 409
+            throw new ResponseStatusException(
+            	HttpStatus.CONFLICT, "Compensation already exists for employeeId: " + compensationHistory.getEmployeeId()
+            		+ " effective " + compensationHistory.getEffectiveDate()
+            );
+        }
+
+        return compensationHistory;
+    }
+
     @Override
     public Employee read(String id) {
         LOG.debug("Get employee with id [{}]", id);
 
-        Employee employee = employeeRepository.findByEmployeeId(id);
+        // Read-through cache - writes invalidate the employee and their managers
+        Employee employee = employeeCache.get(id);
 
         if (employee == null) {
         	// Respond with proper entity Not Found 404
@@ -77,21 +334,139 @@ public class EmployeeServiceImpl implements EmployeeService {
 
         return employee;
     }
+
+    @Override
+    public EmployeeSummary readSummary(String id) {
+        LOG.debug("Get employee summary with id [{}]", id);
+
+        // Loads only the requested document - directReports stay as ids
+        EmployeeSummary summary = employeeRepository.findSummaryByEmployeeId(id);
+
+        if (summary == null) {
+        	// Respond with proper entity Not Found 404
+            throw new ResponseStatusException(
+            	HttpStatus.NOT_FOUND, "Invalid employeeId: " + id
+            );
+        }
+
+        return summary;
+    }
+    
+    @Override
+    public long readVersion(String id) {
+        // From the org chart index, so conditional GETs are answered without touching the database
+        return orgChartIndex.getVersion(id);
+    }
+
+    @Override
+    public long readSubtreeVersion(String id) {
+        return orgChartIndex.getSubtreeVersion(id);
+    }
     
     @Override
     public ReportingStructure readReports(Employee employee) {
-        LOG.debug("Get ReportStructure with employee id [{}]", employee.getEmployeeId());
-        
-        ReportingStructure reportingStructure = new ReportingStructure(employee, computeTotalReports(employee));
+        return readReports(employee, defaultTraversalStrategy);
+    }
+
+    @Override
+    public ReportingStructure readReports(Employee employee, ReportTraversalStrategy strategy) {
+        LOG.debug("Get ReportStructure with employee id [{}] using [{}]", employee.getEmployeeId(), strategy);
+
+        int numberOfReports;
+        switch (strategy) {
+            case GRAPH_LOOKUP:
+                // One $graphLookup round trip for the whole subtree
+                numberOfReports = employeeRepository.findReportIdsByEmployeeId(employee.getEmployeeId(), null).size();
+                break;
+            case BFS:
+                numberOfReports = traverseReports(employee, strategy);
+                break;
+            default:
+                // Maintained count from the in-memory org chart index - O(1), no database access
+                numberOfReports = orgChartIndex.getReportCount(employee.getEmployeeId());
+                if (numberOfReports < 0) {
+                	// Not indexed (never saved through MongoTemplate) - fall back to walking the hydrated employee
+                	numberOfReports = traverseReports(employee, strategy);
+                }
+        }
+
+        ReportingStructure reportingStructure = new ReportingStructure(employee, numberOfReports);
+
+        return reportingStructure;
+    }
+    
+    @Override
+    public ReportingStructure readReportsPage(String id, Integer maxDepth, Integer pageSize, String cursor) {
+        LOG.debug("Get ReportStructure page with employee id [{}], maxDepth [{}], pageSize [{}] and cursor [{}]", id, maxDepth, pageSize, cursor);
+
+        int depth = maxDepth == null ? Integer.MAX_VALUE : maxDepth;
+        int limit = pageSize == null ? defaultPageSize : pageSize;
+        int[] after = decodeCursor(cursor);
+        if (depth < 0 || limit < 1 || limit > maxPageSize) {
+        	// Respond with proper entity Bad Request 400
+            throw new ResponseStatusException(
+            	HttpStatus.BAD_REQUEST, "maxDepth must be >= 0 and pageSize between 1 and " + maxPageSize
+            );
+        }
+
+        // Only the requested document - the subtree is never hydrated, memory is bounded by the page
+        EmployeeSummary summary = readSummary(id);
+
+        // Page of report ids straight from the org chart index, resumed from the previous page's last report
+        OrgChartIndex.ReportPage page = orgChartIndex.getReports(id, depth, after, limit);
+        List<String> reportIds = page == null ? new ArrayList<String>() : page.getReportIds();
+
+        // One query for the whole page, put back into Breadth First order
+        Map<String, EmployeeSummary> reportsById = new HashMap<String, EmployeeSummary>();
+        if (!reportIds.isEmpty()) {
+        	for (EmployeeSummary report : employeeRepository.findSummariesByEmployeeIdIn(reportIds)) {
+        		reportsById.put(report.getEmployeeId(), report);
+        	}
+        }
+        List<EmployeeSummary> reports = new ArrayList<EmployeeSummary>(reportIds.size());
+        for (String reportId : reportIds) {
+        	if (reportsById.containsKey(reportId)) {
+        		reports.add(reportsById.get(reportId));
+        	}
+        }
+
+        int numberOfReports = orgChartIndex.getReportCount(id);
+        ReportingStructure reportingStructure = new ReportingStructure(toEmployee(summary), Math.max(numberOfReports, 0));
+        reportingStructure.setReports(reports);
+        reportingStructure.setNextCursor(page == null ? null : encodeCursor(page.getNext()));
 
         return reportingStructure;
     }
     
+    @Override
+    public EmployeePage readPage(String department, String position, Integer pageSize, String cursor) {
+        LOG.debug("Get employee page with department [{}], position [{}], pageSize [{}] and cursor [{}]", department, position, pageSize, cursor);
+
+        int limit = pageSize == null ? defaultPageSize : pageSize;
+        if (limit < 1 || limit > maxPageSize) {
+        	// Respond with proper entity Bad Request 400
+            throw new ResponseStatusException(
+            	HttpStatus.BAD_REQUEST, "pageSize must be between 1 and " + maxPageSize
+            );
+        }
+
+        // The cursor is the last employeeId of the previous page, so every page is an index seek plus limit + 1 reads
+        List<EmployeeSummary> employees = employeeRepository.findSummariesByDepartmentAndPosition(department, position, cursor, limit + 1);
+        boolean hasNextPage = employees.size() > limit;
+        if (hasNextPage) {
+        	employees = employees.subList(0, limit);
+        }
+
+        return new EmployeePage(employees, hasNextPage ? employees.get(limit - 1).getEmployeeId() : null);
+    }
+
     @Override
     public Compensation readCompensation(String id) {
         LOG.debug("Get compensation with id [{}]", id);
 
-        Compensation compensation = compensationRepository.findByEmployee_EmployeeId(id);
+        // Without the employee DBRef, whose eager resolution walks the subtree one DBRef at a time
+        // the cached, cycle-safe hierarchy is attached instead
+        Compensation compensation = compensationRepository.findByEmployeeIdWithoutEmployee(id);
 
         if (compensation == null) {
         	// Respond with proper entity Not Found 404
@@ -100,27 +475,235 @@ public class EmployeeServiceImpl implements EmployeeService {
             );
         }
 
+        compensation.setEmployee(employeeCache.get(id));
         return compensation;
     }
 
+    @Override
+    public OrgCost readOrgCost(String id) {
+        LOG.debug("Get org cost with employee id [{}]", id);
+
+        // 404 for unknown employees - the subtree itself comes from the org chart index, never the database
+        readSummary(id);
+        List<String> reportIds = orgChartIndex.getAllReports(id);
+        if (reportIds == null) {
+        	reportIds = new ArrayList<String>();
+        }
+
+        // One compensation query for the whole subtree
+        List<BigDecimal> salaries = compensationRepository.findSalariesByEmployeeIdIn(new HashSet<String>(reportIds));
+
+        BigDecimal totalSalary = salaries.size() > orgCostParallelThreshold
+        		? ForkJoinPool.commonPool().invoke(new SalarySumTask(salaries, 0, salaries.size()))
+        		: SalarySumTask.sum(salaries, 0, salaries.size());
+
+        return new OrgCost(id, reportIds.size(), salaries.size(), totalSalary);
+    }
+
+    @Override
+    public CompensationHistory readCompensationAsOf(String id, LocalDate asOf) {
+        LOG.debug("Get compensation with id [{}] as of [{}]", id, asOf);
+
+        // Binary search of the employee's in-memory timeline - no database access
+        CompensationHistory compensation = compensationHistoryIndex.findAsOf(id, asOf);
+
+        if (compensation == null) {
+        	// Respond with proper entity Not Found 404
+            throw new ResponseStatusException(
+            	HttpStatus.NOT_FOUND, "No compensation in effect on " + asOf + " for employeeId: " + id
+            );
+        }
+
+        return compensation;
+    }
+
+    @Override
+    public List<CompensationHistory> readCompensationHistory(String id) {
+        LOG.debug("Get compensation history with id [{}]", id);
+
+        return compensationHistoryIndex.findAll(id);
+    }
+
     @Override
     public Employee update(Employee employee) {
         LOG.debug("Updating employee [{}]", employee);
 
-        return employeeRepository.save(employee);
+        return writeHierarchy(employee.getEmployeeId(), toDirectReportIds(employee), () -> employeeRepository.save(employee));
     }
     
+    @Override
+    public EmployeeSummary patch(String id, Map<String, Object> fields) {
+        LOG.debug("Patching employee [{}] with [{}]", id, fields);
+
+        Map<String, Object> update = toPatchUpdate(id, fields);
+
+        @SuppressWarnings("unchecked")
+        List<String> directReportIds = update.containsKey(EmployeeRepositoryImpl.DIRECT_REPORTS)
+        		? (List<String>) update.get(EmployeeRepositoryImpl.DIRECT_REPORTS) : Collections.<String>emptyList();
+        EmployeeSummary summary = writeHierarchy(id, directReportIds, () -> {
+        	// Existence check and targeted $set in one round trip - the rest of the document is left alone
+        	EmployeeSummary updated = employeeRepository.updateFieldsByEmployeeId(id, update, versionStampListener.nextVersion());
+
+        	// findAndModify raises no mapping events, so the in-memory structures are kept in step here
+        	if (updated != null && update.containsKey(EmployeeRepositoryImpl.DIRECT_REPORTS)) {
+        		orgChartIndex.setDirectReports(id, updated.getDirectReports());
+        	}
+        	return updated;
+        });
+
+        if (summary == null) {
+        	// Respond with proper entity Not Found 404
+            throw new ResponseStatusException(
+            	HttpStatus.NOT_FOUND, "Invalid employeeId: " + id
+            );
+        }
+
+        orgChartIndex.setVersion(id, summary.getVersion());
+        employeeCache.invalidate(id);
+
+        return summary;
+    }
+
+    // The fields to $set for a PATCH, validated - shared with ReactiveEmployeeServiceImpl
+    static Map<String, Object> toPatchUpdate(String id, Map<String, Object> fields) {
+        Map<String, Object> update = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+        	String name = field.getKey();
+        	Object value = field.getValue();
+        	if ("employeeId".equals(name) && id.equals(value) || "version".equals(name)) {
+        		// echoed back from a GET - nothing to change
+        		continue;
+        	}
+        	if (!PATCHABLE_FIELDS.contains(name)) {
+        		// Respond with proper entity Bad Request 400
+        		throw new ResponseStatusException(
+        			HttpStatus.BAD_REQUEST, "Field cannot be patched: " + name
+        		);
+        	}
+        	update.put(name, EmployeeRepositoryImpl.DIRECT_REPORTS.equals(name) ? toDirectReportIds(value) : toText(name, value));
+        }
+        if (update.isEmpty()) {
+        	// Respond with proper entity Bad Request 400
+            throw new ResponseStatusException(
+            	HttpStatus.BAD_REQUEST, "No fields to patch"
+            );
+        }
+
+        return update;
+    }
+
+    // Runs the write once the org chart index agrees the employee can take on these direct reports (409 otherwise)
+    // Check and write share one lock, so two concurrent writes can't each pass the check and together make a cycle
+    // Writes without direct reports can't break the hierarchy and skip the lock
+    private <T> T writeHierarchy(String employeeId, List<String> directReportIds, Supplier<T> write) {
+        if (directReportIds.isEmpty()) {
+            return write.get();
+        }
+
+        hierarchyLock.lock();
+        try {
+            String violation = orgChartIndex.checkDirectReports(employeeId, directReportIds);
+            if (violation != null) {
+                // Respond with proper entity Conflict 409
+                throw new ResponseStatusException(
+                    HttpStatus.CONFLICT, violation
+                );
+            }
+            return write.get();
+        } finally {
+            hierarchyLock.unlock();
+        }
+    }
+
+    static List<String> toDirectReportIds(Employee employee) {
+        if (employee.getDirectReports() == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> directReportIds = new ArrayList<String>(employee.getDirectReports().size());
+        for (Employee directReport : employee.getDirectReports()) {
+            if (directReport != null && directReport.getEmployeeId() != null) {
+                directReportIds.add(directReport.getEmployeeId());
+            }
+        }
+        return directReportIds;
+    }
+
+    private static String toText(String name, Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+
+        // Respond with proper entity Bad Request 400
+        throw new ResponseStatusException(
+            HttpStatus.BAD_REQUEST, name + " must be a string"
+        );
+    }
+
+    // directReports may be sent as employeeIds or as employee objects, like PUT accepts them
+    private static List<String> toDirectReportIds(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+
+        if (!(value instanceof List)) {
+            throw invalidDirectReports();
+        }
+
+        List<String> directReportIds = new ArrayList<String>();
+        for (Object directReport : (List<?>) value) {
+            Object directReportId = directReport instanceof Map ? ((Map<?, ?>) directReport).get("employeeId") : directReport;
+            if (!(directReportId instanceof String)) {
+                throw invalidDirectReports();
+            }
+            directReportIds.add((String) directReportId);
+        }
+        return directReportIds;
+    }
+
+    private static ResponseStatusException invalidDirectReports() {
+        // Respond with proper entity Bad Request 400
+        return new ResponseStatusException(
+            HttpStatus.BAD_REQUEST, "directReports must be a list of employeeIds"
+        );
+    }
+
+    // computeTotalReports with its duration (employee.reports.traversal) and the employees it visited - the employee
+    // itself plus every report - (employee.reports.traversal.nodes), tagged with the strategy that fell back to it
+    private int traverseReports(Employee employee, ReportTraversalStrategy strategy) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int numberOfReports = computeTotalReports(employee);
+        sample.stop(Timer.builder(TRAVERSAL)
+                .description("Breadth First Search of a hydrated reporting structure")
+                .tag("strategy", strategy.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+
+        DistributionSummary.builder(TRAVERSAL_NODES)
+                .description("Employees visited by a Breadth First Search of a reporting structure")
+                .baseUnit("employees")
+                .tag("strategy", strategy.name())
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000000.0)
+                .register(meterRegistry)
+                .record(numberOfReports + 1);
+
+        return numberOfReports;
+    }
+
 	// Helper method to compute numberOfReports
 	// Breadth First Search of Employee Hierarchy
-	private int computeTotalReports(Employee employee) {
+	// Package-private and static for ComputeTotalReportsBenchmark (src/jmh)
+	static int computeTotalReports(Employee employee) {
 		// Queue of employees (reports) to check - until all have been visited!
 		// instantiate ArrayDeque as a queue - faster than stack and LinkedList when used as a queue
 		// source: https://docs.oracle.com/javase/8/docs/api/java/util/ArrayDeque.html
 		Queue<Employee> employeeQueue = new ArrayDeque<Employee>();
 		// initialize with first employee to check
 		employeeQueue.add(employee);
-        // HashMap of all reporting employees found
+        // HashMap of all reporting employees found - seeded with the employee, so a cycle back to it ends the walk
 		HashMap<String, Employee> allReports = new HashMap<String, Employee>();
+		allReports.put(employee.getEmployeeId(), employee);
         
         // employee to check
         Employee currentEmployee = null;
@@ -137,14 +720,73 @@ public class EmployeeServiceImpl implements EmployeeService {
                 	if (!(allReports.containsKey(reportEmployee.getEmployeeId())))
                     {
                         employeeQueue.add(reportEmployee);
-                        LOG.debug("Employee added... {} {}", reportEmployee.getFirstName(), reportEmployee.getLastName());
                         allReports.put(reportEmployee.getEmployeeId(), reportEmployee);
                     }
                 }
             }
         }
 
-        // return total number found
-        return allReports.size();
+        // return total number found, less the employee itself
+        return allReports.size() - 1;
 	}
+
+    // Cursors are the path of the previous page's last report - its child position on each level below the employee,
+    // dot separated - so the next page resumes right there instead of walking past every earlier report again
+    // Shared with ReactiveEmployeeServiceImpl, like encodeCursor
+    static int[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String[] steps = cursor.split("\\.");
+            int[] path = new int[steps.length];
+            for (int i = 0; i < steps.length; i++) {
+                path[i] = Integer.parseInt(steps[i]);
+                if (path[i] < 0) {
+                    throw new NumberFormatException(cursor);
+                }
+            }
+            return path;
+        } catch (NumberFormatException e) {
+            // fall through to the Bad Request below
+        }
+
+        throw new ResponseStatusException(
+            HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor
+        );
+    }
+
+    static String encodeCursor(int[] path) {
+        if (path == null) {
+            return null;
+        }
+
+        StringBuilder cursor = new StringBuilder();
+        for (int step : path) {
+            if (cursor.length() > 0) {
+                cursor.append('.');
+            }
+            cursor.append(step);
+        }
+        return cursor.toString();
+    }
+
+    // Employee with only the ids of its direct reports filled in - the page carries the rest of the subtree
+    private static Employee toEmployee(EmployeeSummary summary) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(summary.getEmployeeId());
+        employee.setFirstName(summary.getFirstName());
+        employee.setLastName(summary.getLastName());
+        employee.setPosition(summary.getPosition());
+        employee.setDepartment(summary.getDepartment());
+
+        List<Employee> directReports = new ArrayList<Employee>(summary.getDirectReports().size());
+        for (String reportId : summary.getDirectReports()) {
+            directReports.add(Employee.fromEmployeeId(reportId));
+        }
+        employee.setDirectReports(directReports);
+
+        return employee;
+    }
 }
@@ -0,0 +1,395 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.cache.EmployeeCache;
+import com.mindex.challenge.config.ReactiveMongoConfig;
+import com.mindex.challenge.dao.ReactiveCompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepositoryImpl;
+import com.mindex.challenge.dao.ReactiveEmployeeRepository;
+import com.mindex.challenge.dao.VersionStampListener;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.index.OrgChartIndex;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import com.mindex.challenge.service.ReportTraversalStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Profile(ReactiveMongoConfig.REACTIVE_PROFILE)
+@Service
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeServiceImpl.class);
+
+    // ids per $in query while loading a subtree
+    private static final int REPORT_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ReactiveEmployeeRepository reactiveEmployeeRepository;
+
+    @Autowired
+    private ReactiveCompensationRepository reactiveCompensationRepository;
+
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Autowired
+    private VersionStampListener versionStampListener;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Value("${employee.reports.traversal-strategy:INDEX}")
+    private ReportTraversalStrategy defaultTraversalStrategy;
+
+    @Value("${employee.reports.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${employee.reports.max-page-size:1000}")
+    private int maxPageSize;
+
+    // Hierarchy checks and the writes they guard run one at a time, like EmployeeServiceImpl's hierarchyLock, without
+    // blocking a thread - each is queued here and only subscribed to once the one before it has finished
+    private final Sinks.Many<Mono<Void>> hierarchyWrites = Sinks.many().unicast().onBackpressureBuffer();
+
+    @PostConstruct
+    public void init() {
+        hierarchyWrites.asFlux().concatMap(write -> write).subscribe();
+    }
+
+    @Override
+    public Mono<Employee> create(Employee employee) {
+        LOG.debug("Creating employee [{}]", employee);
+
+        employee.setEmployeeId(UUID.randomUUID().toString());
+
+        return writeHierarchy(employee.getEmployeeId(), EmployeeServiceImpl.toDirectReportIds(employee),
+        		() -> reactiveEmployeeRepository.insert(employee));
+    }
+
+    @Override
+    public Mono<Compensation> createCompensation(String id, Compensation compensation) {
+        LOG.debug("Creating compensation [{}] with employeeId [{}]", compensation, id);
+
+        // Prevent data corruption by retrieving/setting employee by id - 404 for invalid employees
+        return readSummary(id).flatMap(summary -> {
+        	compensation.setCompensationId(UUID.randomUUID().toString());
+        	compensation.setEmployee(toEmployee(summary));
+
+        	// The unique index on employeeId still allows only one Compensation per employee
+        	return reactiveCompensationRepository.insert(compensation)
+        			.onErrorMap(DuplicateKeyException.class, e ->
+        				// Respond with proper entity Conflict 409
+        				new ResponseStatusException(
+        					HttpStatus.CONFLICT, "Compensation already exists for employeeId: " + id
+        				));
+        });
+    }
+
+    @Override
+    public Mono<EmployeeSummary> readSummary(String id) {
+        LOG.debug("Get employee summary with id [{}]", id);
+
+        return reactiveEmployeeRepository.findSummaryByEmployeeId(id)
+        		.switchIfEmpty(Mono.error(() ->
+        			// Respond with proper entity Not Found 404
+        			new ResponseStatusException(
+        				HttpStatus.NOT_FOUND, "Invalid employeeId: " + id
+        			)));
+    }
+
+    @Override
+    public long readVersion(String id) {
+        // From the in-memory org chart index - never waits on the database
+        return orgChartIndex.getVersion(id);
+    }
+
+    @Override
+    public long readSubtreeVersion(String id) {
+        return orgChartIndex.getSubtreeVersion(id);
+    }
+
+    @Override
+    public Mono<ReportingStructure> readReports(String id, ReportTraversalStrategy strategy) {
+        ReportTraversalStrategy traversalStrategy = strategy == null ? defaultTraversalStrategy : strategy;
+        LOG.debug("Get ReportStructure with employee id [{}] using [{}]", id, traversalStrategy);
+
+        // The subtree is always hydrated from the index ids, the strategy only decides how the reports are counted,
+        // as in EmployeeServiceImpl.readReports
+        return readHydrated(id).flatMap(employee -> {
+        	switch (traversalStrategy) {
+        		case GRAPH_LOOKUP:
+        			// One $graphLookup round trip for the whole subtree
+        			return reactiveEmployeeRepository.findReportIdsByEmployeeId(id, null).count()
+        					.map(numberOfReports -> new ReportingStructure(employee, numberOfReports.intValue()));
+        		case BFS:
+        			return Mono.just(new ReportingStructure(employee, countReports(employee)));
+        		default:
+        			int numberOfReports = orgChartIndex.getReportCount(id);
+        			return Mono.just(new ReportingStructure(employee, numberOfReports < 0 ? countReports(employee) : numberOfReports));
+        	}
+        });
+    }
+
+    @Override
+    public Mono<ReportingStructure> readReportsPage(String id, Integer maxDepth, Integer pageSize, String cursor) {
+        LOG.debug("Get ReportStructure page with employee id [{}], maxDepth [{}], pageSize [{}] and cursor [{}]", id, maxDepth, pageSize, cursor);
+
+        int depth = maxDepth == null ? Integer.MAX_VALUE : maxDepth;
+        int limit = pageSize == null ? defaultPageSize : pageSize;
+        int[] after;
+        try {
+        	after = EmployeeServiceImpl.decodeCursor(cursor);
+        } catch (ResponseStatusException e) {
+        	return Mono.error(e);
+        }
+        if (depth < 0 || limit < 1 || limit > maxPageSize) {
+        	// Respond with proper entity Bad Request 400
+            return Mono.error(new ResponseStatusException(
+            	HttpStatus.BAD_REQUEST, "maxDepth must be >= 0 and pageSize between 1 and " + maxPageSize
+            ));
+        }
+
+        // Same paging as EmployeeServiceImpl.readReportsPage - a page of ids from the org chart index, one $in query
+        // for the page, put back into Breadth First order
+        return readSummary(id).flatMap(summary -> {
+        	OrgChartIndex.ReportPage page = orgChartIndex.getReports(id, depth, after, limit);
+        	List<String> reportIds = page == null ? Collections.<String>emptyList() : page.getReportIds();
+        	Mono<Map<String, EmployeeSummary>> reportsById = reportIds.isEmpty()
+        			? Mono.just(new HashMap<String, EmployeeSummary>())
+        			: reactiveEmployeeRepository.findSummariesByEmployeeIdIn(reportIds).collectMap(EmployeeSummary::getEmployeeId);
+
+        	return reportsById.map(loaded -> {
+        		List<EmployeeSummary> reports = new ArrayList<EmployeeSummary>(reportIds.size());
+        		for (String reportId : reportIds) {
+        			if (loaded.containsKey(reportId)) {
+        				reports.add(loaded.get(reportId));
+        			}
+        		}
+
+        		int numberOfReports = orgChartIndex.getReportCount(id);
+        		ReportingStructure reportingStructure = new ReportingStructure(toEmployee(summary), Math.max(numberOfReports, 0));
+        		reportingStructure.setReports(reports);
+        		reportingStructure.setNextCursor(page == null ? null : EmployeeServiceImpl.encodeCursor(page.getNext()));
+        		return reportingStructure;
+        	});
+        });
+    }
+
+    @Override
+    public Mono<Compensation> readCompensation(String id) {
+        LOG.debug("Get compensation with id [{}]", id);
+
+        // 404 for an invalid employee first, then the hydrated employee embedded, as the servlet variant
+        return readHydrated(id).flatMap(employee -> reactiveCompensationRepository.findByEmployeeIdWithoutEmployee(id)
+        		.switchIfEmpty(Mono.error(() ->
+        			// Respond with proper entity Not Found 404
+        			new ResponseStatusException(
+        				HttpStatus.NOT_FOUND, "No compensation found for employeeId: " + id
+        			)))
+        		.map(compensation -> {
+        			compensation.setEmployee(employee);
+        			return compensation;
+        		}));
+    }
+
+    @Override
+    public Mono<Employee> update(Employee employee) {
+        LOG.debug("Updating employee [{}]", employee);
+
+        // 404 for an invalid employee, as the servlet variant
+        return readSummary(employee.getEmployeeId())
+        		.then(writeHierarchy(employee.getEmployeeId(), EmployeeServiceImpl.toDirectReportIds(employee),
+        				() -> reactiveEmployeeRepository.save(employee)));
+    }
+
+    @Override
+    public Mono<EmployeeSummary> patch(String id, Map<String, Object> fields) {
+        LOG.debug("Patching employee [{}] with [{}]", id, fields);
+
+        Map<String, Object> update;
+        try {
+        	update = EmployeeServiceImpl.toPatchUpdate(id, fields);
+        } catch (ResponseStatusException e) {
+        	return Mono.error(e);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> directReportIds = update.containsKey(EmployeeRepositoryImpl.DIRECT_REPORTS)
+        		? (List<String>) update.get(EmployeeRepositoryImpl.DIRECT_REPORTS) : Collections.<String>emptyList();
+        return writeHierarchy(id, directReportIds, () -> reactiveEmployeeRepository.updateFieldsByEmployeeId(id, update, versionStampListener.nextVersion())
+        				// findAndModify raises no mapping events, so the in-memory structures are kept in step here
+        				.doOnNext(summary -> {
+        					if (update.containsKey(EmployeeRepositoryImpl.DIRECT_REPORTS)) {
+        						orgChartIndex.setDirectReports(id, summary.getDirectReports());
+        					}
+        				}))
+        		.switchIfEmpty(Mono.error(() ->
+        			// Respond with proper entity Not Found 404
+        			new ResponseStatusException(
+        				HttpStatus.NOT_FOUND, "Invalid employeeId: " + id
+        			)))
+        		.doOnNext(summary -> {
+        			orgChartIndex.setVersion(id, summary.getVersion());
+        			employeeCache.invalidate(id);
+        		});
+    }
+
+    @Override
+    public Mono<EmployeePage> readPage(String department, String position, Integer pageSize, String cursor) {
+        LOG.debug("Get employee page with department [{}], position [{}], pageSize [{}] and cursor [{}]", department, position, pageSize, cursor);
+
+        int limit = pageSize == null ? defaultPageSize : pageSize;
+        if (limit < 1 || limit > maxPageSize) {
+        	// Respond with proper entity Bad Request 400
+            return Mono.error(new ResponseStatusException(
+            	HttpStatus.BAD_REQUEST, "pageSize must be between 1 and " + maxPageSize
+            ));
+        }
+
+        // Same keyset paging as EmployeeServiceImpl.readPage - limit + 1 to know whether there is a next page
+        return reactiveEmployeeRepository.findSummariesByDepartmentAndPosition(department, position, cursor, limit + 1)
+        		.collectList()
+        		.map(employees -> {
+        			boolean hasNextPage = employees.size() > limit;
+        			if (hasNextPage) {
+        				employees = employees.subList(0, limit);
+        			}
+        			return new EmployeePage(employees, hasNextPage ? employees.get(limit - 1).getEmployeeId() : null);
+        		});
+    }
+
+    // The employee with their whole subtree - the ids come from the org chart index, so it loads in a few $in queries
+    // instead of one DBRef round trip per employee
+    private Mono<Employee> readHydrated(String id) {
+        List<String> reportIds = orgChartIndex.getAllReports(id);
+        Flux<EmployeeSummary> reports = reportIds == null || reportIds.isEmpty()
+        		? Flux.empty()
+        		: Flux.fromIterable(reportIds)
+        			.buffer(REPORT_BATCH_SIZE)
+        			.concatMap(reactiveEmployeeRepository::findSummariesByEmployeeIdIn);
+
+        return readSummary(id).zipWith(reports.collectMap(EmployeeSummary::getEmployeeId),
+        		(summary, reportsById) -> hydrate(summary, reportsById));
+    }
+
+    // Runs the write once the org chart index agrees the employee can take on these direct reports (409 otherwise)
+    // Queued behind any other hierarchy write, so two concurrent writes can't each pass the check and together make
+    // a cycle - writes without direct reports can't break the hierarchy and skip the queue
+    private <T> Mono<T> writeHierarchy(String employeeId, List<String> directReportIds, Supplier<Mono<T>> write) {
+        if (directReportIds.isEmpty()) {
+            return Mono.defer(write);
+        }
+
+        return Mono.defer(() -> {
+            Sinks.One<T> result = Sinks.one();
+            Mono<Void> checkedWrite = Mono.defer(() -> {
+            	String violation = orgChartIndex.checkDirectReports(employeeId, directReportIds);
+            	if (violation != null) {
+            		// Respond with proper entity Conflict 409
+            		return Mono.<T>error(new ResponseStatusException(
+            			HttpStatus.CONFLICT, violation
+            		));
+            	}
+            	return write.get();
+            })
+            		.doOnSuccess(value -> {
+            			if (value == null) {
+            				result.tryEmitEmpty();
+            			} else {
+            				result.tryEmitValue(value);
+            			}
+            		})
+            		.doOnError(result::tryEmitError)
+            		.onErrorResume(e -> Mono.empty())
+            		.then();
+
+            // several threads may queue at once - the sink only rejects concurrent emits, so those simply retry
+            hierarchyWrites.emitNext(checkedWrite, (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+            return result.asMono();
+        });
+    }
+
+    // Breadth First over the hydrated tree - no recursion, so a deep chain can't overflow the stack
+    private static int countReports(Employee employee) {
+        List<Employee> queue = new ArrayList<Employee>();
+        queue.add(employee);
+        for (int head = 0; head < queue.size(); head++) {
+        	List<Employee> directReports = queue.get(head).getDirectReports();
+        	if (directReports != null) {
+        		queue.addAll(directReports);
+        	}
+        }
+        // everyone queued except the employee themself
+        return queue.size() - 1;
+    }
+
+    // Builds the nested Employee from already loaded summaries, one level at a time with a queue like
+    // EmployeeRepositoryImpl.findHierarchyByEmployeeId, so a deep chain can't overflow the stack
+    // An employee already placed in the tree stays an id only, so a cycle ends there
+    private static Employee hydrate(EmployeeSummary summary, Map<String, EmployeeSummary> reportsById) {
+        Set<String> placed = new HashSet<String>();
+        placed.add(summary.getEmployeeId());
+        Employee hierarchy = toEmployee(summary);
+
+        List<Employee> queue = new ArrayList<Employee>();
+        queue.add(hierarchy);
+        for (int head = 0; head < queue.size(); head++) {
+        	// id-only direct reports from toEmployee, replaced in place by the loaded ones
+        	List<Employee> directReports = queue.get(head).getDirectReports();
+        	for (int i = 0; i < directReports.size(); i++) {
+        		String reportId = directReports.get(i).getEmployeeId();
+        		EmployeeSummary report = reportsById.get(reportId);
+        		if (report != null && placed.add(reportId)) {
+        			Employee employee = toEmployee(report);
+        			directReports.set(i, employee);
+        			queue.add(employee);
+        		}
+        	}
+        }
+
+        return hierarchy;
+    }
+
+    // directReports as id-only employees, like the servlet variant's summary conversion
+    private static Employee toEmployee(EmployeeSummary summary) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(summary.getEmployeeId());
+        employee.setFirstName(summary.getFirstName());
+        employee.setLastName(summary.getLastName());
+        employee.setPosition(summary.getPosition());
+        employee.setDepartment(summary.getDepartment());
+        employee.setVersion(summary.getVersion());
+
+        List<Employee> directReports = new ArrayList<Employee>(summary.getDirectReports().size());
+        for (String reportId : summary.getDirectReports()) {
+        	directReports.add(Employee.fromEmployeeId(reportId));
+        }
+        employee.setDirectReports(directReports);
+
+        return employee;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mindex.challenge.service.impl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+// Fork/join sum of a large list of salaries - halves the range until it is small enough to add up sequentially
+class SalarySumTask extends RecursiveTask<BigDecimal> {
+
+    static final int SEQUENTIAL_THRESHOLD = 10000;
+
+    private final List<BigDecimal> salaries;
+    private final int from;
+    private final int to;
+
+    SalarySumTask(List<BigDecimal> salaries, int from, int to) {
+        this.salaries = salaries;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected BigDecimal compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            return sum(salaries, from, to);
+        }
+
+        int middle = (from + to) >>> 1;
+        SalarySumTask left = new SalarySumTask(salaries, from, middle);
+        left.fork();
+        BigDecimal right = new SalarySumTask(salaries, middle, to).compute();
+        return left.join().add(right);
+    }
+
+    static BigDecimal sum(List<BigDecimal> salaries, int from, int to) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = from; i < to; i++) {
+            total = total.add(salaries.get(i));
+        }
+        return total;
+    }
+}
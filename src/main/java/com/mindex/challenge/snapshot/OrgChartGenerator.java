@@ -0,0 +1,283 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.SnapshotResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.UUID;
+
+// Writes a synthetic org chart as a binary start-up snapshot, loadable with bootstrap.snapshot=<path>
+// Every employee gets a compensation and historyPerEmployee yearly compensation history entries in the years before it.
+// Shape: a chain of depth employees guarantees the deepest level, the rest attach to a manager picked in proportion to
+// the reports it already has (preferential attachment) - a few very wide managers and many small teams, like a real
+// org chart. fanOut caps the direct reports of a manager, nobody is placed below level depth - 1.
+// The same settings and seed always produce the same snapshot.
+public class OrgChartGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrgChartGenerator.class);
+
+    private static final String[] FIRST_NAMES = {
+            "John", "Paul", "George", "Ringo", "Pete", "Yoko", "Linda", "Cynthia", "Brian", "Stuart",
+            "Pattie", "Maureen", "Julian", "Mary", "Billy", "Olivia", "Dhani", "Sean", "Stella", "James"
+    };
+    private static final String[] LAST_NAMES = {
+            "Lennon", "McCartney", "Harrison", "Starr", "Best", "Ono", "Epstein", "Sutcliffe", "Martin", "Preston",
+            "Boyd", "Cox", "Eastman", "Powell", "Aspinall", "Evans", "Emerick", "Klein", "Jagger", "Richards"
+    };
+    private static final String[] DEPARTMENTS = {
+            "Engineering", "Sales", "Marketing", "Finance", "Operations", "Support", "Human Resources", "Legal"
+    };
+    private static final String[] INDIVIDUAL_POSITIONS = {
+            "Developer I", "Developer II", "Developer III", "Developer IV", "Developer V"
+    };
+
+    private static final LocalDate FIRST_EFFECTIVE_DATE = LocalDate.of(2020, 1, 1);
+    private static final int EFFECTIVE_DATE_DAYS = 5 * 365;
+
+    private final int employees;
+    private final int depth;
+    private final int fanOut;
+    private final int historyPerEmployee;
+    private final long seed;
+
+    public OrgChartGenerator(int employees, int depth, int fanOut, int historyPerEmployee, long seed) {
+        if (depth < 1 || fanOut < 1 || historyPerEmployee < 0) {
+            throw new IllegalArgumentException("depth and fanOut must be positive, historyPerEmployee not negative");
+        }
+        if (employees < depth) {
+            throw new IllegalArgumentException(employees + " employees can't fill " + depth + " levels");
+        }
+        if (employees > capacity(depth, fanOut)) {
+            throw new IllegalArgumentException(employees + " employees don't fit in " + depth + " levels of at most "
+                    + fanOut + " direct reports");
+        }
+
+        this.employees = employees;
+        this.depth = depth;
+        this.fanOut = fanOut;
+        this.historyPerEmployee = historyPerEmployee;
+        this.seed = seed;
+    }
+
+    // e.g. gradlew generateOrgChart -Porgchart.employees=100000 -Porgchart.depth=12 -Porgchart.fan-out=500
+    public static void main(String[] args) throws IOException {
+        OrgChartGenerator generator = new OrgChartGenerator(
+                Integer.getInteger("orgchart.employees", 100000),
+                Integer.getInteger("orgchart.depth", 12),
+                Integer.getInteger("orgchart.fan-out", 500),
+                Integer.getInteger("orgchart.history", 3),
+                Long.getLong("orgchart.seed", 42));
+        generator.generate(Paths.get(System.getProperty("orgchart.output", "data/employees.snapshot")));
+    }
+
+    public SnapshotResult generate(Path path) throws IOException {
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        OrgChart orgChart = buildOrgChart(random);
+
+        String[] ids = new String[employees];
+        for (int i = 0; i < employees; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+        }
+
+        SnapshotResult result = new SnapshotResult();
+        result.setPath(path.toAbsolutePath().toString());
+
+        // write next to the target and move into place, like SnapshotWriter
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            output.writeInt(SnapshotFormat.MAGIC);
+            output.writeShort(SnapshotFormat.VERSION);
+
+            for (int i = 0; i < employees; i++) {
+                writeEmployee(output, orgChart, ids, i, random);
+            }
+            result.setEmployees(employees);
+
+            for (int i = 0; i < employees; i++) {
+                BigDecimal salary = salary(orgChart.levels[i], random);
+                LocalDate effectiveDate = FIRST_EFFECTIVE_DATE.plusDays(random.nextInt(EFFECTIVE_DATE_DAYS));
+
+                output.writeByte(SnapshotFormat.COMPENSATION);
+                SnapshotWriter.writeString(output, new UUID(random.nextLong(), random.nextLong()).toString());
+                SnapshotWriter.writeString(output, ids[i]);
+                SnapshotWriter.writeString(output, salary.toPlainString());
+                output.writeLong(effectiveDate.toEpochDay());
+
+                // yearly raises of 5% up to the current compensation - the last one a year before it, so no history
+                // entry shares the compensation's effective date
+                for (int year = historyPerEmployee; year >= 1; year--) {
+                    output.writeByte(SnapshotFormat.COMPENSATION_HISTORY);
+                    SnapshotWriter.writeString(output, new UUID(random.nextLong(), random.nextLong()).toString());
+                    SnapshotWriter.writeString(output, ids[i]);
+                    SnapshotWriter.writeString(output, salary.multiply(BigDecimal.valueOf(Math.pow(0.95, year))).setScale(0, RoundingMode.HALF_UP).toPlainString());
+                    output.writeLong(effectiveDate.minusYears(year).toEpochDay());
+                }
+            }
+            result.setCompensations(employees);
+            result.setCompensationHistory((long) employees * historyPerEmployee);
+
+            output.writeByte(SnapshotFormat.END);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+
+        result.setBytes(Files.size(path));
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        LOG.info("Generated org chart of [{}] employees in [{}] levels (widest manager {} direct reports, fan-out cap {}, seed {}) [{}]",
+                employees, orgChart.maxLevel + 1, orgChart.widest, fanOut, seed, result);
+
+        return result;
+    }
+
+    // Parent of every employee (-1 for the root) plus the direct reports as one array sliced by firstReport
+    private OrgChart buildOrgChart(Random random) {
+        OrgChart orgChart = new OrgChart(employees);
+        int[] reportCounts = new int[employees];
+
+        // one ticket per employee plus one per direct report it already has
+        int[] tickets = new int[2 * employees];
+        int ticketCount = 0;
+        // managers that can still take a report - swap-removed once full, for when the ticket drawn is full
+        int[] open = new int[employees];
+        int[] openPosition = new int[employees];
+        int openCount = 0;
+
+        for (int i = 0; i < employees; i++) {
+            int parent;
+            if (i == 0) {
+                parent = -1;
+            } else if (i < depth) {
+                parent = i - 1;
+            } else {
+                parent = tickets[random.nextInt(ticketCount)];
+                if (openPosition[parent] < 0) {
+                    parent = open[random.nextInt(openCount)];
+                }
+            }
+
+            orgChart.parents[i] = parent;
+            orgChart.levels[i] = parent < 0 ? 0 : orgChart.levels[parent] + 1;
+            orgChart.maxLevel = Math.max(orgChart.maxLevel, orgChart.levels[i]);
+            tickets[ticketCount++] = i;
+            if (orgChart.levels[i] < depth - 1) {
+                open[openCount] = i;
+                openPosition[i] = openCount++;
+            } else {
+                openPosition[i] = -1;
+            }
+
+            if (parent >= 0) {
+                tickets[ticketCount++] = parent;
+                if (++reportCounts[parent] == fanOut) {
+                    int last = open[--openCount];
+                    open[openPosition[parent]] = last;
+                    openPosition[last] = openPosition[parent];
+                    openPosition[parent] = -1;
+                }
+                orgChart.widest = Math.max(orgChart.widest, reportCounts[parent]);
+            }
+        }
+
+        // counting sort of the employees by manager
+        for (int i = 0; i < employees; i++) {
+            orgChart.firstReport[i + 1] = orgChart.firstReport[i] + reportCounts[i];
+        }
+        int[] next = new int[employees];
+        System.arraycopy(orgChart.firstReport, 0, next, 0, employees);
+        for (int i = 1; i < employees; i++) {
+            orgChart.reports[next[orgChart.parents[i]]++] = i;
+        }
+
+        // departments are set by the level 1 manager and shared by everyone below
+        for (int i = 0; i < employees; i++) {
+            int level = orgChart.levels[i];
+            orgChart.departments[i] = level == 0 ? -1
+                    : level == 1 ? random.nextInt(DEPARTMENTS.length)
+                    : orgChart.departments[orgChart.parents[i]];
+        }
+
+        return orgChart;
+    }
+
+    private void writeEmployee(DataOutputStream output, OrgChart orgChart, String[] ids, int employee, Random random) throws IOException {
+        int level = orgChart.levels[employee];
+        int reportCount = orgChart.firstReport[employee + 1] - orgChart.firstReport[employee];
+
+        output.writeByte(SnapshotFormat.EMPLOYEE);
+        SnapshotWriter.writeString(output, ids[employee]);
+        SnapshotWriter.writeString(output, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+        SnapshotWriter.writeString(output, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        SnapshotWriter.writeString(output, position(level, reportCount, random));
+        SnapshotWriter.writeString(output, orgChart.departments[employee] < 0 ? "Executive" : DEPARTMENTS[orgChart.departments[employee]]);
+
+        output.writeInt(reportCount);
+        for (int i = orgChart.firstReport[employee]; i < orgChart.firstReport[employee + 1]; i++) {
+            SnapshotWriter.writeString(output, ids[orgChart.reports[i]]);
+        }
+    }
+
+    private static String position(int level, int reportCount, Random random) {
+        if (level == 0) {
+            return "Chief Executive Officer";
+        }
+        if (reportCount == 0) {
+            return INDIVIDUAL_POSITIONS[random.nextInt(INDIVIDUAL_POSITIONS.length)];
+        }
+        return level == 1 ? "Vice President" : level == 2 ? "Director" : "Manager";
+    }
+
+    // Whole dollars, higher up the chart
+    private BigDecimal salary(int level, Random random) {
+        return BigDecimal.valueOf(50000L + 15000L * (depth - 1 - level) + random.nextInt(20000));
+    }
+
+    // Employees in a full tree of the given depth and fan-out, saturating at Long.MAX_VALUE
+    private static long capacity(int depth, int fanOut) {
+        long capacity = 0;
+        long levelSize = 1;
+        for (int level = 0; level < depth; level++) {
+            capacity += levelSize;
+            if (capacity < 0 || levelSize > Long.MAX_VALUE / fanOut) {
+                return Long.MAX_VALUE;
+            }
+            levelSize *= fanOut;
+        }
+        return capacity;
+    }
+
+    private static class OrgChart {
+        private final int[] parents;
+        private final int[] levels;
+        private final int[] departments;
+        private final int[] firstReport;
+        private final int[] reports;
+        private int maxLevel;
+        private int widest;
+
+        OrgChart(int employees) {
+            parents = new int[employees];
+            levels = new int[employees];
+            departments = new int[employees];
+            firstReport = new int[employees + 1];
+            reports = new int[Math.max(employees - 1, 0)];
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.mindex.challenge.snapshot;
+
+// Layout of the binary start-up snapshot
+//   header:  int MAGIC, short VERSION
+//   records: byte tag, then the record fields - until an END tag
+//   employee:     id, firstName, lastName, position, department, int directReportCount, directReport ids
+//   compensation: id, employeeId, salary (BigDecimal string), long effectiveDate epoch day
+//   compensation history (version 2): same fields as compensation
+// Strings are an int byte length (-1 for null) followed by UTF-8 bytes, numbers are big-endian.
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x4D58534E; // "MXSN"
+    static final short VERSION = 2;
+
+    static final byte END = 0;
+    static final byte EMPLOYEE = 1;
+    static final byte COMPENSATION = 2;
+    static final byte COMPENSATION_HISTORY = 3;
+
+    static final int NULL_LENGTH = -1;
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    private SnapshotFormat() {
+    }
+}
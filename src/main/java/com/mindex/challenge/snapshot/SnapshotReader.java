@@ -0,0 +1,156 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationHistory;
+import com.mindex.challenge.data.Employee;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Decodes the binary start-up snapshot through a read-only memory mapping of the file
+// Records are handed to the sink in batches; references (directReports, compensation employee) are id-only stubs,
+// which is all the mapping layer needs to write the DBRefs back.
+public class SnapshotReader {
+
+    public interface Sink {
+        void employees(List<Employee> employees);
+
+        void compensations(List<Compensation> compensations);
+
+        void compensationHistory(List<CompensationHistory> compensationHistory);
+    }
+
+    private final int batchSize;
+
+    public SnapshotReader(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // An IOException means the file was rejected (unreadable, wrong magic or version) before any record reached the sink
+    // A truncated or corrupt body fails part way through (BufferUnderflowException, IllegalStateException), after the
+    // batches before it were handed over
+    public void read(Path path, Sink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + path + " is larger than a single 2 GB mapping");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != SnapshotFormat.MAGIC) {
+                throw new IOException(path + " is not an employee snapshot");
+            }
+            short version = buffer.getShort();
+            // every older version is a subset of the current one
+            if (version < 1 || version > SnapshotFormat.VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+
+            List<Employee> employees = new ArrayList<Employee>(batchSize);
+            List<Compensation> compensations = new ArrayList<Compensation>(batchSize);
+            List<CompensationHistory> compensationHistory = new ArrayList<CompensationHistory>(batchSize);
+            byte tag;
+            while ((tag = buffer.get()) != SnapshotFormat.END) {
+                if (tag == SnapshotFormat.EMPLOYEE) {
+                    employees.add(readEmployee(buffer));
+                    if (employees.size() == batchSize) {
+                        sink.employees(employees);
+                        employees = new ArrayList<Employee>(batchSize);
+                    }
+                } else if (tag == SnapshotFormat.COMPENSATION) {
+                    compensations.add(readCompensation(buffer));
+                    if (compensations.size() == batchSize) {
+                        sink.compensations(compensations);
+                        compensations = new ArrayList<Compensation>(batchSize);
+                    }
+                } else if (tag == SnapshotFormat.COMPENSATION_HISTORY) {
+                    compensationHistory.add(readCompensationHistory(buffer));
+                    if (compensationHistory.size() == batchSize) {
+                        sink.compensationHistory(compensationHistory);
+                        compensationHistory = new ArrayList<CompensationHistory>(batchSize);
+                    }
+                } else {
+                    throw new IllegalStateException("Corrupt snapshot " + path + ": unknown record tag " + tag);
+                }
+            }
+
+            if (!employees.isEmpty()) {
+                sink.employees(employees);
+            }
+            if (!compensations.isEmpty()) {
+                sink.compensations(compensations);
+            }
+            if (!compensationHistory.isEmpty()) {
+                sink.compensationHistory(compensationHistory);
+            }
+        }
+    }
+
+    private static Employee readEmployee(MappedByteBuffer buffer) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(readString(buffer));
+        employee.setFirstName(readString(buffer));
+        employee.setLastName(readString(buffer));
+        employee.setPosition(readString(buffer));
+        employee.setDepartment(readString(buffer));
+
+        int directReportCount = buffer.getInt();
+        if (directReportCount > 0) {
+            List<Employee> directReports = new ArrayList<Employee>(directReportCount);
+            for (int i = 0; i < directReportCount; i++) {
+                directReports.add(Employee.fromEmployeeId(readString(buffer)));
+            }
+            employee.setDirectReports(directReports);
+        }
+
+        return employee;
+    }
+
+    private static Compensation readCompensation(MappedByteBuffer buffer) {
+        Compensation compensation = new Compensation();
+        compensation.setCompensationId(readString(buffer));
+
+        String employeeId = readString(buffer);
+        compensation.setEmployee(employeeId == null ? null : Employee.fromEmployeeId(employeeId));
+
+        String salary = readString(buffer);
+        compensation.setSalary(salary == null ? null : new BigDecimal(salary));
+
+        long effectiveDate = buffer.getLong();
+        compensation.setEffectiveDate(effectiveDate == SnapshotFormat.NO_DATE ? null : LocalDate.ofEpochDay(effectiveDate));
+
+        return compensation;
+    }
+
+    private static CompensationHistory readCompensationHistory(MappedByteBuffer buffer) {
+        CompensationHistory entry = new CompensationHistory();
+        entry.setCompensationHistoryId(readString(buffer));
+        entry.setEmployeeId(readString(buffer));
+
+        String salary = readString(buffer);
+        entry.setSalary(salary == null ? null : new BigDecimal(salary));
+
+        long effectiveDate = buffer.getLong();
+        entry.setEffectiveDate(effectiveDate == SnapshotFormat.NO_DATE ? null : LocalDate.ofEpochDay(effectiveDate));
+
+        return entry;
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == SnapshotFormat.NULL_LENGTH) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
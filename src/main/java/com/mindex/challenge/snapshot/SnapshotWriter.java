@@ -0,0 +1,144 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.dao.EmployeeRepositoryImpl;
+import com.mindex.challenge.data.CompensationHistory;
+import com.mindex.challenge.data.SnapshotResult;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.List;
+
+// Writes the Employee, Compensation and CompensationHistory collections out to the binary start-up snapshot
+// Documents are streamed from a cursor as raw BSON, so DBRefs are written as ids and never resolved
+@Component
+public class SnapshotWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotWriter.class);
+
+    private static final String COMPENSATION_COLLECTION = "Compensation";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public SnapshotResult write(Path path) throws IOException {
+        long start = System.currentTimeMillis();
+        SnapshotResult result = new SnapshotResult();
+        result.setPath(path.toAbsolutePath().toString());
+
+        // write next to the target and move into place, so a crash never leaves a truncated snapshot to boot from
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            output.writeInt(SnapshotFormat.MAGIC);
+            output.writeShort(SnapshotFormat.VERSION);
+
+            try (CloseableIterator<Document> employees = mongoTemplate.stream(new Query(), Document.class, EmployeeRepositoryImpl.COLLECTION)) {
+                while (employees.hasNext()) {
+                    writeEmployee(output, employees.next());
+                    result.setEmployees(result.getEmployees() + 1);
+                }
+            }
+
+            ConversionService conversionService = mongoTemplate.getConverter().getConversionService();
+            try (CloseableIterator<Document> compensations = mongoTemplate.stream(new Query(), Document.class, COMPENSATION_COLLECTION)) {
+                while (compensations.hasNext()) {
+                    writeCompensation(output, compensations.next(), conversionService);
+                    result.setCompensations(result.getCompensations() + 1);
+                }
+            }
+
+            try (CloseableIterator<CompensationHistory> history = mongoTemplate.stream(new Query(), CompensationHistory.class)) {
+                while (history.hasNext()) {
+                    writeCompensationHistory(output, history.next());
+                    result.setCompensationHistory(result.getCompensationHistory() + 1);
+                }
+            }
+
+            output.writeByte(SnapshotFormat.END);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+
+        result.setBytes(Files.size(path));
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        LOG.info("Wrote snapshot [{}]", result);
+
+        return result;
+    }
+
+    private static void writeEmployee(DataOutputStream output, Document document) throws IOException {
+        output.writeByte(SnapshotFormat.EMPLOYEE);
+        writeString(output, document.getString("_id"));
+        writeString(output, document.getString("firstName"));
+        writeString(output, document.getString("lastName"));
+        writeString(output, document.getString("position"));
+        writeString(output, document.getString("department"));
+
+        List<?> directReports = (List<?>) document.get("directReports");
+        if (directReports == null) {
+            output.writeInt(0);
+            return;
+        }
+        output.writeInt(directReports.size());
+        for (Object directReport : directReports) {
+            writeString(output, ((DBRef) directReport).getId().toString());
+        }
+    }
+
+    private static void writeCompensation(DataOutputStream output, Document document, ConversionService conversionService) throws IOException {
+        output.writeByte(SnapshotFormat.COMPENSATION);
+        writeString(output, document.getString("_id"));
+
+        DBRef employee = (DBRef) document.get("employee");
+        writeString(output, employee == null ? null : employee.getId().toString());
+
+        // converted the same way the mapping layer reads them back (salary is stored as a string, dates as Date)
+        Object salary = document.get("salary");
+        writeString(output, salary == null ? null : conversionService.convert(salary, BigDecimal.class).toPlainString());
+
+        Object effectiveDate = document.get("effectiveDate");
+        output.writeLong(effectiveDate == null ? SnapshotFormat.NO_DATE : conversionService.convert(effectiveDate, LocalDate.class).toEpochDay());
+    }
+
+    private static void writeCompensationHistory(DataOutputStream output, CompensationHistory entry) throws IOException {
+        output.writeByte(SnapshotFormat.COMPENSATION_HISTORY);
+        writeString(output, entry.getCompensationHistoryId());
+        writeString(output, entry.getEmployeeId());
+        writeString(output, entry.getSalary() == null ? null : entry.getSalary().toPlainString());
+        output.writeLong(entry.getEffectiveDate() == null ? SnapshotFormat.NO_DATE : entry.getEffectiveDate().toEpochDay());
+    }
+
+    // Package-private for OrgChartGenerator, which writes the same records without a database
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(SnapshotFormat.NULL_LENGTH);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
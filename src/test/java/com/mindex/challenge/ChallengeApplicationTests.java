@@ -1,6 +1,7 @@
 package com.mindex.challenge;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -21,7 +23,10 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.OrgChartConsistencyReport;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.index.OrgChartConsistencyChecker;
+import com.mindex.challenge.index.OrgChartIndex;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -35,6 +40,12 @@ public class ChallengeApplicationTests {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @LocalServerPort
     private int port;
 
@@ -199,5 +210,37 @@ public class ChallengeApplicationTests {
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, readStatus);
     }
+    
+    @Test
+    public void testOrgChartConsistencyReportsNoDrift() { 
+        // Execute
+        OrgChartConsistencyReport report = restTemplate.getForEntity("http://localhost:" + port + "/admin/org-chart/consistency",
+        		OrgChartConsistencyReport.class).getBody();
+
+        // Assert - at least the bootstrap dataset was recounted
+        assertTrue(report.getCheckedEmployees() >= 5);
+        assertEquals(0, report.getDrift().size());
+    }
+
+    @Test
+    public void testOrgChartConsistencyReportsEmployeeOnlyInIndex() {
+        // Arrange - a manager the live index still holds but the database never had
+        orgChartIndex.setDirectReports("stale-manager", null);
+
+        try {
+            // Execute
+            OrgChartConsistencyReport report = restTemplate.getForEntity("http://localhost:" + port + "/admin/org-chart/consistency",
+            		OrgChartConsistencyReport.class).getBody();
+
+            // Assert - checked although the fresh scan never saw them, and recounted as unknown
+            assertEquals(1, report.getDrift().size());
+            assertEquals("stale-manager", report.getDrift().get(0).getEmployeeId());
+            assertEquals(0, report.getDrift().get(0).getStoredCount());
+            assertEquals(-1, report.getDrift().get(0).getActualCount());
+        } finally {
+            orgChartIndex.clear();
+            OrgChartConsistencyChecker.load(mongoTemplate, orgChartIndex);
+        }
+    }
 
 }
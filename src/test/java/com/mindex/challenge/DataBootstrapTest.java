@@ -1,15 +1,50 @@
 package com.mindex.challenge;
 
+import com.mindex.challenge.dao.CompensationHistoryRepository;
+import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationHistory;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.SnapshotResult;
+import com.mindex.challenge.index.OrgChartIndex;
+import com.mindex.challenge.snapshot.OrgChartGenerator;
+import com.mindex.challenge.snapshot.SnapshotReader;
+import com.mindex.challenge.snapshot.SnapshotWriter;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -18,6 +53,21 @@ public class DataBootstrapTest {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @Autowired
+    private CompensationHistoryRepository compensationHistoryRepository;
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private SnapshotWriter snapshotWriter;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testJohnLennonBootstrap() {
         Employee employee = employeeRepository.findByEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f");
@@ -67,4 +117,215 @@ public class DataBootstrapTest {
         assertEquals("Developer III", employee.getPosition());
         assertEquals("Engineering", employee.getDepartment());
     }
-}
\ No newline at end of file
+    
+    // Thousands of extra employees in the database and the org chart index - the context (and its in-memory database)
+    // is thrown away afterwards, so no other test runs against them
+    @Test
+    @DirtiesContext
+    public void testStreamingLoadWithParallelWriters() throws IOException {
+        // Arrange - 2500 employees, ten direct reports per manager
+        File snapshot = temporaryFolder.newFile("employees.json");
+        try (Writer writer = new FileWriter(snapshot)) {
+            writer.write("[");
+            for (int i = 0; i < 2500; i++) {
+                writer.write(i == 0 ? "" : ",");
+                writer.write("{\"employeeId\":\"stream-" + i + "\",\"firstName\":\"Stream\",\"lastName\":\"" + i + "\"");
+                if (i * 10 + 1 < 2500) {
+                    writer.write(",\"directReports\":[");
+                    for (int report = i * 10 + 1; report <= Math.min(i * 10 + 10, 2499); report++) {
+                        writer.write((report == i * 10 + 1 ? "" : ",") + "{\"employeeId\":\"stream-" + report + "\"}");
+                    }
+                    writer.write("]");
+                }
+                writer.write("}");
+            }
+            writer.write("]");
+        }
+        ReflectionTestUtils.setField(dataBootstrap, "batchSize", 100);
+        ReflectionTestUtils.setField(dataBootstrap, "writerThreads", 4);
+
+        // Execute
+        long loaded;
+        try {
+            loaded = dataBootstrap.load(new FileSystemResource(snapshot));
+        } finally {
+            ReflectionTestUtils.setField(dataBootstrap, "batchSize", 1000);
+            ReflectionTestUtils.setField(dataBootstrap, "writerThreads", 1);
+        }
+
+        // Assert
+        assertEquals(2500, loaded);
+        assertEquals("1234", employeeRepository.findSummaryByEmployeeId("stream-1234").getLastName());
+        assertEquals(10, employeeRepository.findSummaryByEmployeeId("stream-0").getDirectReports().size());
+        assertNotNull(employeeRepository.findSummaryByEmployeeId("stream-2499"));
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        // Arrange - a compensation and a history entry for John so every record type is in the snapshot
+        Compensation compensation = new Compensation("snapshot-compensation", new BigDecimal("123456.78"),
+                LocalDate.of(2020, 2, 29), Employee.fromEmployeeId("16a596ae-edd3-4847-99fe-c4518e82c86f"));
+        compensationRepository.save(compensation);
+        compensationHistoryRepository.save(new CompensationHistory("snapshot-history", "16a596ae-edd3-4847-99fe-c4518e82c86f",
+                new BigDecimal("99000"), LocalDate.of(2018, 1, 1)));
+        File snapshot = new File(temporaryFolder.getRoot(), "employees.snapshot");
+
+        // Execute
+        SnapshotResult result = snapshotWriter.write(snapshot.toPath());
+
+        Map<String, Employee> employees = new HashMap<String, Employee>();
+        Map<String, Compensation> compensations = new HashMap<String, Compensation>();
+        Map<String, CompensationHistory> compensationHistory = new HashMap<String, CompensationHistory>();
+        new SnapshotReader(100).read(snapshot.toPath(), new SnapshotReader.Sink() {
+            @Override
+            public void employees(List<Employee> batch) {
+                batch.forEach(employee -> employees.put(employee.getEmployeeId(), employee));
+            }
+
+            @Override
+            public void compensations(List<Compensation> batch) {
+                batch.forEach(read -> compensations.put(read.getCompensationId(), read));
+            }
+
+            @Override
+            public void compensationHistory(List<CompensationHistory> batch) {
+                batch.forEach(read -> compensationHistory.put(read.getCompensationHistoryId(), read));
+            }
+        });
+
+        // Assert
+        assertEquals(employeeRepository.count(), result.getEmployees());
+        assertEquals(compensationRepository.count(), result.getCompensations());
+        assertEquals(result.getEmployees(), employees.size());
+        assertEquals(result.getCompensations(), compensations.size());
+        assertEquals(compensationHistoryRepository.count(), compensationHistory.size());
+        assertEquals(Files.size(snapshot.toPath()), result.getBytes());
+
+        Employee john = employees.get("16a596ae-edd3-4847-99fe-c4518e82c86f");
+        assertEquals("Lennon", john.getLastName());
+        assertEquals("Development Manager", john.getPosition());
+        assertEquals(2, john.getDirectReports().size());
+        assertEquals("b7839309-3348-463b-a7e3-5de1c168beb3", john.getDirectReports().get(0).getEmployeeId());
+
+        Compensation readCompensation = compensations.get("snapshot-compensation");
+        assertEquals(0, new BigDecimal("123456.78").compareTo(readCompensation.getSalary()));
+        assertEquals(LocalDate.of(2020, 2, 29), readCompensation.getEffectiveDate());
+        assertEquals("16a596ae-edd3-4847-99fe-c4518e82c86f", readCompensation.getEmployee().getEmployeeId());
+        assertEquals(LocalDate.of(2018, 1, 1), compensationHistory.get("snapshot-history").getEffectiveDate());
+    }
+
+    // Thrown away afterwards like testStreamingLoadWithParallelWriters
+    @Test
+    @DirtiesContext
+    public void testGeneratedOrgChartSnapshot() throws IOException {
+        // Arrange - 3000 employees in 8 levels of at most 100 direct reports, two history entries each
+        File snapshot = new File(temporaryFolder.getRoot(), "generated.snapshot");
+        new OrgChartGenerator(3000, 8, 100, 2, 7).generate(snapshot.toPath());
+
+        Map<String, Employee> employees = new HashMap<String, Employee>();
+        List<Compensation> compensations = new ArrayList<Compensation>();
+        List<CompensationHistory> history = new ArrayList<CompensationHistory>();
+        new SnapshotReader(1000).read(snapshot.toPath(), new SnapshotReader.Sink() {
+            @Override
+            public void employees(List<Employee> batch) {
+                batch.forEach(employee -> employees.put(employee.getEmployeeId(), employee));
+            }
+
+            @Override
+            public void compensations(List<Compensation> batch) {
+                compensations.addAll(batch);
+            }
+
+            @Override
+            public void compensationHistory(List<CompensationHistory> batch) {
+                history.addAll(batch);
+            }
+        });
+        long storedCompensations = compensationRepository.count();
+        long storedCompensationHistory = compensationHistoryRepository.count();
+
+        // Execute
+        long loaded = dataBootstrap.loadSnapshot(snapshot.toPath());
+
+        // Assert - a single root, every employee reachable from it exactly once, the levels and fan-out as configured
+        Set<String> reports = new HashSet<String>();
+        int widest = 0;
+        for (Employee employee : employees.values()) {
+            List<Employee> directReports = employee.getDirectReports() == null ? new ArrayList<Employee>() : employee.getDirectReports();
+            widest = Math.max(widest, directReports.size());
+            directReports.forEach(report -> reports.add(report.getEmployeeId()));
+        }
+        List<String> roots = new ArrayList<String>(employees.keySet());
+        roots.removeAll(reports);
+        assertEquals(1, roots.size());
+        assertEquals(employees.size() - 1, reports.size());
+        assertTrue(widest <= 100);
+
+        int levels = 0;
+        int reached = 0;
+        List<Employee> level = Collections.singletonList(employees.get(roots.get(0)));
+        while (!level.isEmpty()) {
+            levels++;
+            reached += level.size();
+            List<Employee> next = new ArrayList<Employee>();
+            for (Employee employee : level) {
+                if (employee.getDirectReports() != null) {
+                    employee.getDirectReports().forEach(report -> next.add(employees.get(report.getEmployeeId())));
+                }
+            }
+            level = next;
+        }
+        assertEquals(8, levels);
+        assertEquals(3000, reached);
+        assertEquals(3000, compensations.size());
+
+        // the two history entries of each employee fall one and two years before their compensation
+        Map<String, LocalDate> effectiveDates = new HashMap<String, LocalDate>();
+        compensations.forEach(compensation -> effectiveDates.put(compensation.getEmployee().getEmployeeId(), compensation.getEffectiveDate()));
+        assertEquals(6000, history.size());
+        for (CompensationHistory entry : history) {
+            LocalDate effectiveDate = effectiveDates.get(entry.getEmployeeId());
+            assertTrue(entry.getEffectiveDate().equals(effectiveDate.minusYears(1)) || entry.getEffectiveDate().equals(effectiveDate.minusYears(2)));
+        }
+
+        assertEquals(3000, loaded);
+        assertEquals(storedCompensations + 3000, compensationRepository.count());
+        assertEquals(storedCompensationHistory + 6000, compensationHistoryRepository.count());
+        assertEquals(roots.get(0), employeeRepository.findByEmployeeId(roots.get(0)).getEmployeeId());
+    }
+
+    @Test
+    public void testTruncatedSnapshotFallsBackToJson() throws IOException {
+        // Arrange - a generated snapshot cut off part way through its compensation history, well after the first batches
+        File snapshot = new File(temporaryFolder.getRoot(), "truncated.snapshot");
+        new OrgChartGenerator(3000, 8, 100, 2, 7).generate(snapshot.toPath());
+        byte[] bytes = Files.readAllBytes(snapshot.toPath());
+        Files.write(snapshot.toPath(), Arrays.copyOf(bytes, bytes.length * 2 / 3));
+
+        // Execute - a fresh application (and database) started on the truncated snapshot
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--bootstrap.snapshot=" + snapshot.getPath(), "--bootstrap.batch-size=500")) {
+            OrgChartIndex orgChartIndex = context.getBean(OrgChartIndex.class);
+
+            // Assert - only the five JSON employees, nothing left over from the snapshot
+            assertEquals(5, context.getBean(EmployeeRepository.class).count());
+            assertEquals(0, context.getBean(CompensationRepository.class).count());
+            assertEquals(0, context.getBean(CompensationHistoryRepository.class).count());
+            assertEquals(5, orgChartIndex.size());
+            assertEquals(4, orgChartIndex.getReportCount("16a596ae-edd3-4847-99fe-c4518e82c86f"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSnapshotRejectsOtherFiles() throws IOException {
+        // Arrange - a JSON file where a snapshot is expected
+        File notASnapshot = temporaryFolder.newFile("employees.snapshot");
+        try (Writer writer = new FileWriter(notASnapshot)) {
+            writer.write("[{\"employeeId\":\"not-a-snapshot\"}]");
+        }
+
+        // Execute
+        dataBootstrap.loadSnapshot(notASnapshot.toPath());
+    }
+}
@@ -0,0 +1,231 @@
+package com.mindex.challenge.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.mindex.challenge.config.ReactiveMongoConfig;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.data.ReportingStructure;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(ReactiveMongoConfig.REACTIVE_PROFILE)
+public class ReactiveEmployeeControllerTest {
+
+    private static final String JOHN_LENNON = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    private static final String RINGO_STARR = "03aa1462-ffa9-4978-901b-7c001562cf6f";
+    private static final String PETE_BEST = "62c1084e-6e34-4630-93fd-9153afb65309";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void testCreateReadEmployee() {
+        // Arrange
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("Brian");
+        testEmployee.setLastName("Epstein");
+        testEmployee.setDepartment("Management");
+        testEmployee.setPosition("Manager");
+
+        // Execute
+        Employee createdEmployee = webTestClient.post().uri("/employee").bodyValue(testEmployee)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+        EmployeeSummary readEmployee = webTestClient.get().uri("/employee/{id}", createdEmployee.getEmployeeId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(EmployeeSummary.class).returnResult().getResponseBody();
+
+        // Assert
+        assertNotNull(createdEmployee.getEmployeeId());
+        assertEquals(createdEmployee.getEmployeeId(), readEmployee.getEmployeeId());
+        assertEquals("Brian", readEmployee.getFirstName());
+        assertEquals("Management", readEmployee.getDepartment());
+    }
+
+    @Test
+    public void testReadReportingStructureHydratesSubtree() {
+        // Execute
+        ReportingStructure reportingStructure = webTestClient.get().uri("/employee/{id}/reporting-structure", JOHN_LENNON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReportingStructure.class).returnResult().getResponseBody();
+
+        // Assert - John -> (Paul, Ringo -> (Pete, George))
+        assertEquals(4, reportingStructure.getNumberOfReports());
+        Employee ringo = reportingStructure.getEmployee().getDirectReports().get(1);
+        assertEquals(RINGO_STARR, ringo.getEmployeeId());
+        assertEquals("Ringo", ringo.getFirstName());
+        assertEquals(PETE_BEST, ringo.getDirectReports().get(0).getEmployeeId());
+        assertEquals("Pete", ringo.getDirectReports().get(0).getFirstName());
+    }
+
+    @Test
+    public void testReadReportingStructureStrategiesAndPages() {
+        // Execute
+        ReportingStructure graphLookup = webTestClient.get().uri("/employee/{id}/reporting-structure?strategy=GRAPH_LOOKUP", JOHN_LENNON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReportingStructure.class).returnResult().getResponseBody();
+        ReportingStructure firstPage = webTestClient.get().uri("/employee/{id}/reporting-structure?pageSize=3", JOHN_LENNON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReportingStructure.class).returnResult().getResponseBody();
+        ReportingStructure secondPage = webTestClient.get().uri("/employee/{id}/reporting-structure?pageSize=3&cursor={cursor}", JOHN_LENNON, firstPage.getNextCursor())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReportingStructure.class).returnResult().getResponseBody();
+        ReportingStructure directOnly = webTestClient.get().uri("/employee/{id}/reporting-structure?maxDepth=1", JOHN_LENNON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReportingStructure.class).returnResult().getResponseBody();
+
+        // Assert - counted by $graphLookup, then the four reports in Breadth First order over two pages
+        assertEquals(4, graphLookup.getNumberOfReports());
+        assertEquals("Ringo", graphLookup.getEmployee().getDirectReports().get(1).getFirstName());
+        assertEquals(3, firstPage.getReports().size());
+        assertEquals(RINGO_STARR, firstPage.getReports().get(1).getEmployeeId());
+        assertEquals(PETE_BEST, firstPage.getReports().get(2).getEmployeeId());
+        assertEquals(1, secondPage.getReports().size());
+        assertNull(secondPage.getNextCursor());
+        assertEquals(2, directOnly.getReports().size());
+        webTestClient.get().uri("/employee/{id}/reporting-structure?pageSize=0", JOHN_LENNON).exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/employee/{id}/reporting-structure?cursor=x", JOHN_LENNON).exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testReadEmployeeHonoursIfNoneMatch() {
+        // Arrange
+        String etag = webTestClient.get().uri("/employee/{id}", PETE_BEST)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        // Execute / Assert
+        assertNotNull(etag);
+        webTestClient.get().uri("/employee/{id}", PETE_BEST).ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    public void testCreateAndReadCompensation() {
+        // Arrange
+        Compensation testCompensation = new Compensation();
+        testCompensation.setSalary(new BigDecimal("120000.00"));
+        testCompensation.setEffectiveDate(LocalDate.of(2024, 1, 1));
+
+        // Execute
+        webTestClient.post().uri("/employee/{id}/compensation", RINGO_STARR).bodyValue(testCompensation)
+                .exchange()
+                .expectStatus().isCreated();
+        Compensation compensation = webTestClient.get().uri("/employee/{id}/compensation", RINGO_STARR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Compensation.class).returnResult().getResponseBody();
+
+        // Assert - a second compensation for the same employee is a conflict
+        assertEquals(0, testCompensation.getSalary().compareTo(compensation.getSalary()));
+        assertEquals(testCompensation.getEffectiveDate(), compensation.getEffectiveDate());
+        assertEquals(RINGO_STARR, compensation.getEmployee().getEmployeeId());
+        assertEquals("Ringo", compensation.getEmployee().getFirstName());
+        assertEquals(PETE_BEST, compensation.getEmployee().getDirectReports().get(0).getEmployeeId());
+        assertEquals("Pete", compensation.getEmployee().getDirectReports().get(0).getFirstName());
+        webTestClient.post().uri("/employee/{id}/compensation", RINGO_STARR).bodyValue(testCompensation)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void testUpdateAndPatchEmployee() {
+        // Arrange
+        Employee manager = createEmployee("Neil", "Aspinall");
+        Employee report = createEmployee("Mal", "Evans");
+
+        // Execute
+        manager.setPosition("Road Manager");
+        Employee updatedManager = webTestClient.put().uri("/employee/{id}", manager.getEmployeeId()).bodyValue(manager)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+        EmployeeSummary patchedManager = webTestClient.patch().uri("/employee/{id}", manager.getEmployeeId())
+                .bodyValue(Collections.singletonMap("directReports", Arrays.asList(report.getEmployeeId())))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(EmployeeSummary.class).returnResult().getResponseBody();
+
+        // Assert - the report taking on their own manager would be a cycle
+        assertEquals("Road Manager", updatedManager.getPosition());
+        assertEquals("Road Manager", patchedManager.getPosition());
+        assertEquals(Arrays.asList(report.getEmployeeId()), patchedManager.getDirectReports());
+        webTestClient.patch().uri("/employee/{id}", report.getEmployeeId())
+                .bodyValue(Collections.singletonMap("directReports", Arrays.asList(manager.getEmployeeId())))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        webTestClient.patch().uri("/employee/{id}", "missing")
+                .bodyValue(Collections.singletonMap("position", "Roadie"))
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.put().uri("/employee/{id}", "missing").bodyValue(report)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testUnknownEmployeeIsNotFound() {
+        webTestClient.get().uri("/employee/{id}", "missing").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/employee/{id}/reporting-structure", "missing").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/employee/{id}/compensation", "missing").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testEmployeesPage() {
+        // Execute
+        EmployeePage page = webTestClient.get().uri("/employees?department=Engineering&pageSize=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(EmployeePage.class).returnResult().getResponseBody();
+        EmployeePage lastPage = webTestClient.get().uri("/employees?department=Engineering&pageSize=3&cursor={cursor}", page.getNextCursor())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(EmployeePage.class).returnResult().getResponseBody();
+
+        // Assert - the five seeded engineers over two pages
+        assertEquals(3, page.getEmployees().size());
+        assertEquals(2, lastPage.getEmployees().size());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    private Employee createEmployee(String firstName, String lastName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setDepartment("Management");
+        employee.setPosition("Assistant");
+
+        return webTestClient.post().uri("/employee").bodyValue(employee)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+    }
+}
@@ -0,0 +1,101 @@
+package com.mindex.challenge.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.mindex.challenge.data.Employee;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class EmployeeRepositoryImplTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    public void testDepartmentOnlyPageUsesDepartmentIndex() {
+        // Execute - the embedded server has no explain, so the plan is the index the query is pinned to
+        Query query = EmployeeRepositoryImpl.pageQuery("Engineering", null, null, 10);
+        List<Document> page = mongoTemplate.find(query, Document.class, EmployeeRepositoryImpl.COLLECTION);
+
+        // Assert - an existing index on exactly the filter then the sort key, and the page in _id order from it
+        assertEquals(EmployeeRepositoryImpl.DEPARTMENT_INDEX, query.getHint());
+        assertEquals(Arrays.asList(EmployeeRepositoryImpl.DEPARTMENT, "_id"), indexKeys(EmployeeRepositoryImpl.DEPARTMENT_INDEX));
+        assertFalse(page.isEmpty());
+        for (int i = 1; i < page.size(); i++) {
+            assertTrue(page.get(i - 1).getString("_id").compareTo(page.get(i).getString("_id")) < 0);
+        }
+    }
+
+    @Test
+    public void testEveryFilterCombinationHasItsIndex() {
+        assertEquals(Arrays.asList(EmployeeRepositoryImpl.DEPARTMENT, EmployeeRepositoryImpl.POSITION, "_id"),
+                indexKeys(EmployeeRepositoryImpl.pageQuery("Engineering", "Developer", null, 10).getHint()));
+        assertEquals(Arrays.asList(EmployeeRepositoryImpl.POSITION, "_id"),
+                indexKeys(EmployeeRepositoryImpl.pageQuery(null, "Developer", null, 10).getHint()));
+        // no filter - the _id index serves the sort
+        assertNull(EmployeeRepositoryImpl.pageQuery(null, null, null, 10).getHint());
+    }
+
+    @Test
+    public void testDirectReportCycleResolves() {
+        // Arrange - A reports to B and B to A, written as raw documents past every write path's cycle check
+        String aId = "cycle-a";
+        String bId = "cycle-b";
+        mongoTemplate.insert(new Document("_id", aId).append("firstName", "Cycle").append("lastName", "A")
+                .append(EmployeeRepositoryImpl.DIRECT_REPORTS, Arrays.asList(new DBRef(EmployeeRepositoryImpl.COLLECTION, bId))), EmployeeRepositoryImpl.COLLECTION);
+        mongoTemplate.insert(new Document("_id", bId).append("firstName", "Cycle").append("lastName", "B")
+                .append(EmployeeRepositoryImpl.DIRECT_REPORTS, Arrays.asList(new DBRef(EmployeeRepositoryImpl.COLLECTION, aId))), EmployeeRepositoryImpl.COLLECTION);
+
+        try {
+            // Execute
+            Employee a = employeeRepository.findByEmployeeId(aId);
+
+            // Assert - B is resolved, its report back to A is cut to a bare reference
+            assertNotNull(a);
+            Employee b = a.getDirectReports().get(0);
+            assertEquals(bId, b.getEmployeeId());
+            assertEquals("B", b.getLastName());
+            Employee backToA = b.getDirectReports().get(0);
+            assertEquals(aId, backToA.getEmployeeId());
+            assertNull(backToA.getDirectReports());
+        } finally {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(aId, bId)), EmployeeRepositoryImpl.COLLECTION);
+        }
+    }
+
+    private List<String> indexKeys(String name) {
+        for (IndexInfo index : mongoTemplate.indexOps(EmployeeRepositoryImpl.COLLECTION).getIndexInfo()) {
+            if (index.getName().equals(name)) {
+                List<String> keys = new ArrayList<String>();
+                for (IndexField field : index.getIndexFields()) {
+                    keys.add(field.getKey());
+                }
+                return keys;
+            }
+        }
+        throw new AssertionError("No index named " + name);
+    }
+}
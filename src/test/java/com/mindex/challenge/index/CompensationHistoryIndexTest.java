@@ -0,0 +1,105 @@
+package com.mindex.challenge.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mindex.challenge.data.CompensationHistory;
+
+public class CompensationHistoryIndexTest {
+
+    private CompensationHistoryIndex compensationHistoryIndex;
+
+    @Before
+    public void setup() {
+        compensationHistoryIndex = new CompensationHistoryIndex();
+        compensationHistoryIndex.put("john", "raise", LocalDate.of(2021, 1, 1), new BigDecimal("80000"));
+        compensationHistoryIndex.put("john", "hire", LocalDate.of(2019, 1, 1), new BigDecimal("60000"));
+        compensationHistoryIndex.put("john", "promotion", LocalDate.of(2020, 1, 1), new BigDecimal("70000"));
+    }
+
+    @Test
+    public void testFindAsOfReturnsEntryInEffect() {
+        assertEquals("promotion", compensationHistoryIndex.findAsOf("john", LocalDate.of(2020, 12, 31)).getCompensationHistoryId());
+        assertEquals("raise", compensationHistoryIndex.findAsOf("john", LocalDate.of(2021, 1, 1)).getCompensationHistoryId());
+        assertEquals("raise", compensationHistoryIndex.findAsOf("john", LocalDate.of(2030, 1, 1)).getCompensationHistoryId());
+        assertNull(compensationHistoryIndex.findAsOf("john", LocalDate.of(2018, 12, 31)));
+        assertNull(compensationHistoryIndex.findAsOf("paul", LocalDate.of(2020, 1, 1)));
+    }
+
+    @Test
+    public void testPutReplacesEntryForSameDate() {
+        // Execute
+        compensationHistoryIndex.put("john", "correction", LocalDate.of(2020, 1, 1), new BigDecimal("72000"));
+
+        // Assert
+        assertEquals(3, compensationHistoryIndex.findAll("john").size());
+        assertEquals(new BigDecimal("72000"), compensationHistoryIndex.findAsOf("john", LocalDate.of(2020, 6, 1)).getSalary());
+        assertEquals(LocalDate.of(2019, 1, 1), compensationHistoryIndex.findAll("john").get(0).getEffectiveDate());
+    }
+
+    @Test
+    public void testCurrentCompensationWinsOverHistoryOfSameDate() {
+        // Arrange - history first for paul, the current compensation first for george
+        compensationHistoryIndex.put("paul", "paul-history", LocalDate.of(2022, 1, 1), new BigDecimal("50000"));
+        compensationHistoryIndex.putCurrent("paul", "paul-current", LocalDate.of(2022, 1, 1), new BigDecimal("55000"));
+        compensationHistoryIndex.putCurrent("george", "george-current", LocalDate.of(2022, 1, 1), new BigDecimal("55000"));
+
+        // Execute
+        compensationHistoryIndex.put("george", "george-history", LocalDate.of(2022, 1, 1), new BigDecimal("50000"));
+        compensationHistoryIndex.putCurrent("paul", "paul-raise", LocalDate.of(2022, 1, 1), new BigDecimal("60000"));
+
+        // Assert - either order ends with the current compensation, which can still replace itself
+        assertEquals(1, compensationHistoryIndex.findAll("paul").size());
+        assertEquals("paul-raise", compensationHistoryIndex.findAsOf("paul", LocalDate.of(2022, 1, 1)).getCompensationHistoryId());
+        assertEquals(1, compensationHistoryIndex.findAll("george").size());
+        assertEquals("george-current", compensationHistoryIndex.findAsOf("george", LocalDate.of(2022, 1, 1)).getCompensationHistoryId());
+        assertEquals(new BigDecimal("55000"), compensationHistoryIndex.findAsOf("george", LocalDate.of(2022, 6, 1)).getSalary());
+    }
+
+    @Test
+    public void testFindAsOfMatchesLinearScanOfShuffledTimeline() {
+        // Arrange - 20 salary changes, one per 30 day slot, inserted in random order
+        int changes = 20;
+        long firstDay = LocalDate.of(2000, 1, 1).toEpochDay();
+        Random random = new Random(42);
+        List<Integer> changeOrder = new ArrayList<Integer>();
+        for (int change = 0; change < changes; change++) {
+            changeOrder.add(change);
+        }
+        Collections.shuffle(changeOrder, random);
+
+        long[] days = new long[changes];
+        CompensationHistoryIndex timelineIndex = new CompensationHistoryIndex();
+        for (int change : changeOrder) {
+            days[change] = firstDay + change * 30 + random.nextInt(30);
+            timelineIndex.put("ringo", "change-" + change, LocalDate.ofEpochDay(days[change]), new BigDecimal(change));
+        }
+
+        // Execute / Assert - every day across the timeline, plus a slot either side, against the latest change on or before it
+        assertEquals(changes, timelineIndex.findAll("ringo").size());
+        for (long day = firstDay - 30; day < firstDay + (changes + 1) * 30; day++) {
+            int expected = -1;
+            for (int change = 0; change < changes && days[change] <= day; change++) {
+                expected = change;
+            }
+
+            CompensationHistory entry = timelineIndex.findAsOf("ringo", LocalDate.ofEpochDay(day));
+            if (expected < 0) {
+                assertNull(entry);
+            } else {
+                assertEquals("change-" + expected, entry.getCompensationHistoryId());
+                assertEquals(LocalDate.ofEpochDay(days[expected]), entry.getEffectiveDate());
+            }
+        }
+    }
+}
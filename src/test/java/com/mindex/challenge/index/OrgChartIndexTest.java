@@ -0,0 +1,214 @@
+package com.mindex.challenge.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrgChartIndexTest {
+
+    private OrgChartIndex orgChartIndex;
+
+    @Before
+    public void setup() {
+        // Beatles hierarchy from employee_database.json, inserted parent first like DataBootstrap does
+        orgChartIndex = new OrgChartIndex();
+        orgChartIndex.setDirectReports("john", Arrays.asList("paul", "ringo"));
+        orgChartIndex.setDirectReports("paul", Collections.<String>emptyList());
+        orgChartIndex.setDirectReports("ringo", Arrays.asList("pete", "george"));
+        orgChartIndex.setDirectReports("pete", null);
+        orgChartIndex.setDirectReports("george", null);
+    }
+
+    @Test
+    public void testCountReportsWalksWholeSubtree() {
+        assertEquals(4, orgChartIndex.countReports("john"));
+        assertEquals(2, orgChartIndex.countReports("ringo"));
+        assertEquals(0, orgChartIndex.countReports("paul"));
+    }
+
+    @Test
+    public void testCountReportsReturnsNegativeForUnknownEmployee() {
+        assertFalse(orgChartIndex.contains("Bad id"));
+        assertEquals(-1, orgChartIndex.countReports("Bad id"));
+    }
+
+    @Test
+    public void testSetDirectReportsReplacesChildren() {
+        // Arrange
+        orgChartIndex.setDirectReports("ringo", Collections.singletonList("pete"));
+
+        // Assert
+        assertEquals(3, orgChartIndex.countReports("john"));
+        assertEquals(Collections.singletonList("pete"), orgChartIndex.getDirectReports("ringo"));
+    }
+
+    @Test
+    public void testCountReportsIgnoresCycles() {
+        // Arrange - George made John's manager
+        orgChartIndex.setDirectReports("george", Collections.singletonList("john"));
+
+        // Assert - distinct reports only, never the employee themself
+        assertTrue(orgChartIndex.contains("george"));
+        assertEquals(4, orgChartIndex.countReports("john"));
+        assertEquals(4, orgChartIndex.countReports("george"));
+    }
+
+    @Test
+    public void testFindCycleOnlyInBadData() {
+        assertNull(orgChartIndex.findCycle());
+
+        // Arrange - George made John's manager, the way a bulk load writes it without any check
+        orgChartIndex.setDirectReports("george", Collections.singletonList("john"));
+
+        // Assert - someone on the loop john -> ringo -> george -> john
+        assertTrue(Arrays.asList("john", "ringo", "george").contains(orgChartIndex.findCycle()));
+    }
+
+    @Test
+    public void testGetReportsPagesInBreadthFirstOrder() {
+        // Execute - pages of two, each resumed from the path the previous one returned
+        OrgChartIndex.ReportPage first = orgChartIndex.getReports("john", Integer.MAX_VALUE, null, 2);
+        OrgChartIndex.ReportPage second = orgChartIndex.getReports("john", Integer.MAX_VALUE, first.getNext(), 2);
+        OrgChartIndex.ReportPage third = orgChartIndex.getReports("john", Integer.MAX_VALUE, new int[] { 1, 1 }, 2);
+
+        // Assert - ringo is john's second report, george ringo's second
+        assertEquals(Arrays.asList("paul", "ringo"), first.getReportIds());
+        assertArrayEquals(new int[] { 1 }, first.getNext());
+        assertEquals(Arrays.asList("pete", "george"), second.getReportIds());
+        assertEquals(null, second.getNext());
+        assertEquals(Collections.emptyList(), third.getReportIds());
+    }
+
+    @Test
+    public void testGetReportsCrossesLevelsWithinAPage() {
+        // Execute
+        OrgChartIndex.ReportPage page = orgChartIndex.getReports("john", Integer.MAX_VALUE, new int[] { 0 }, 2);
+
+        // Assert - the rest of the first level, then the start of the second
+        assertEquals(Arrays.asList("ringo", "pete"), page.getReportIds());
+        assertArrayEquals(new int[] { 1, 0 }, page.getNext());
+    }
+
+    @Test
+    public void testGetReportsStopsAtMaxDepth() {
+        assertEquals(Arrays.asList("paul", "ringo"), orgChartIndex.getReports("john", 1, null, 10).getReportIds());
+        assertEquals(null, orgChartIndex.getReports("john", 1, null, 2).getNext());
+        assertEquals(Collections.emptyList(), orgChartIndex.getReports("john", 0, null, 10).getReportIds());
+        assertEquals(null, orgChartIndex.getReports("Bad id", 1, null, 10));
+        assertEquals(Arrays.asList("paul", "ringo", "pete", "george"), orgChartIndex.getAllReports("john"));
+    }
+
+    @Test
+    public void testReportCountsFollowWrites() {
+        // Assert - maintained counts match a fresh recount
+        assertEquals(4, orgChartIndex.getReportCount("john"));
+        assertEquals(2, orgChartIndex.getReportCount("ringo"));
+        assertEquals(0, orgChartIndex.getReportCount("george"));
+        assertEquals(-1, orgChartIndex.getReportCount("Bad id"));
+
+        // Execute - George gains two reports, then Ringo's team moves under Paul
+        orgChartIndex.setDirectReports("george", Arrays.asList("stuart", "billy"));
+        assertEquals(6, orgChartIndex.getReportCount("john"));
+        assertEquals(4, orgChartIndex.getReportCount("ringo"));
+
+        orgChartIndex.setDirectReports("ringo", null);
+        orgChartIndex.setDirectReports("paul", Arrays.asList("pete", "george"));
+
+        // Assert
+        assertEquals(0, orgChartIndex.getReportCount("ringo"));
+        assertEquals(4, orgChartIndex.getReportCount("paul"));
+        assertEquals(6, orgChartIndex.getReportCount("john"));
+        assertEquals(orgChartIndex.countReports("john"), orgChartIndex.getReportCount("john"));
+    }
+
+    @Test
+    public void testReportCountsWhenReportsIndexedBeforeManager() {
+        // Arrange - leaves first, then the manager
+        OrgChartIndex bottomUpIndex = new OrgChartIndex();
+        bottomUpIndex.setDirectReports("ringo", Arrays.asList("pete", "george"));
+        bottomUpIndex.setDirectReports("john", Arrays.asList("paul", "ringo", "ringo"));
+
+        // Assert
+        assertEquals(4, bottomUpIndex.getReportCount("john"));
+    }
+
+    @Test
+    public void testGetManagersWalksUpTheChain() {
+        assertEquals(Arrays.asList("ringo", "john"), orgChartIndex.getManagers("george"));
+        assertEquals(Collections.emptyList(), orgChartIndex.getManagers("john"));
+        assertEquals(Collections.emptyList(), orgChartIndex.getManagers("Bad id"));
+
+        // a cycle in bad data still terminates
+        orgChartIndex.setDirectReports("george", Collections.singletonList("john"));
+        assertEquals(Arrays.asList("george", "ringo"), orgChartIndex.getManagers("john"));
+    }
+
+    @Test
+    public void testSubtreeVersionFollowsWritesBelow() {
+        // Arrange
+        orgChartIndex.setVersion("john", 10);
+        orgChartIndex.setVersion("ringo", 11);
+
+        // Execute - a write to George
+        orgChartIndex.setVersion("george", 12);
+
+        // Assert - every manager above George sees it, nobody else
+        assertEquals(12, orgChartIndex.getSubtreeVersion("john"));
+        assertEquals(12, orgChartIndex.getSubtreeVersion("ringo"));
+        assertEquals(0, orgChartIndex.getSubtreeVersion("paul"));
+        assertEquals(10, orgChartIndex.getVersion("john"));
+        assertEquals(0, orgChartIndex.getSubtreeVersion("Bad id"));
+    }
+
+    @Test
+    public void testSubtreeVersionWhenReportsIndexedBeforeManager() {
+        // Arrange - a rebuild may see a recently written report before their older manager
+        OrgChartIndex bottomUpIndex = new OrgChartIndex();
+        bottomUpIndex.setVersion("george", 20);
+        bottomUpIndex.setDirectReports("ringo", Arrays.asList("pete", "george"));
+        bottomUpIndex.setVersion("ringo", 5);
+
+        // Assert
+        assertEquals(20, bottomUpIndex.getSubtreeVersion("ringo"));
+    }
+
+    @Test
+    public void testCheckDirectReportsRejectsCyclesAndSecondManagers() {
+        // Assert - Ringo keeping or rearranging his own reports, or a new employee taking on Paul's, is fine
+        assertEquals(null, orgChartIndex.checkDirectReports("ringo", Arrays.asList("george", "pete")));
+        assertEquals(null, orgChartIndex.checkDirectReports("paul", Arrays.asList("stuart", "new")));
+        assertEquals(null, orgChartIndex.checkDirectReports("new", Collections.<String>emptyList()));
+
+        assertEquals("Employee paul cannot report to themself", orgChartIndex.checkDirectReports("paul", Collections.singletonList("paul")));
+        assertEquals("Employee john manages george and cannot also report to them",
+                orgChartIndex.checkDirectReports("george", Collections.singletonList("john")));
+        assertEquals("Employee pete already reports to ringo", orgChartIndex.checkDirectReports("paul", Collections.singletonList("pete")));
+        assertEquals("Employee ringo already reports to john", orgChartIndex.checkDirectReports("new", Collections.singletonList("ringo")));
+    }
+
+    @Test
+    public void testReportMovedToAnotherManagerLeavesTheOldOne() {
+        // Arrange
+        orgChartIndex.setVersion("george", 7);
+
+        // Execute - George listed under Paul without Ringo's reports being rewritten, like a lone AfterSave event
+        orgChartIndex.setDirectReports("paul", Collections.singletonList("george"));
+
+        // Assert - maintained counts still match a fresh recount
+        assertEquals(Collections.singletonList("pete"), orgChartIndex.getDirectReports("ringo"));
+        assertEquals(Arrays.asList("paul", "john"), orgChartIndex.getManagers("george"));
+        assertEquals(1, orgChartIndex.getReportCount("ringo"));
+        assertEquals(1, orgChartIndex.getReportCount("paul"));
+        assertEquals(4, orgChartIndex.getReportCount("john"));
+        assertEquals(orgChartIndex.countReports("john"), orgChartIndex.getReportCount("john"));
+        assertEquals(7, orgChartIndex.getSubtreeVersion("paul"));
+    }
+}
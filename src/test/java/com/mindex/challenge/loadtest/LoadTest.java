@@ -0,0 +1,274 @@
+package com.mindex.challenge.loadtest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.loadtest.RequestMix.Operation;
+
+// End-to-end load test of the REST endpoints on a random port - not part of the normal test run, see the loadTest task
+// Settings are system properties (loadtest.concurrency, loadtest.requests, ...) with the defaults below
+// Closed loop: each worker sends its next request as soon as the previous one returned - requests that would have been
+// sent during a server stall are never measured (coordinated omission), so read the high percentiles as a lower bound
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // per request debug logging would dominate the measurement
+        properties = "logging.level.com.mindex=INFO")
+public class LoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+    // employees created (with a compensation each) before the run, in a tree of BALANCED_FAN_OUT reports per manager
+    private static final int BALANCED_FAN_OUT = 4;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final int requests = Integer.getInteger("loadtest.requests", 20000);
+    private final int warmUpRequests = Integer.getInteger("loadtest.warm-up-requests", 2000);
+    private final int employees = Integer.getInteger("loadtest.employees", 200);
+    private final RequestMix mix = new RequestMix(System.getProperty("loadtest.mix", "read:50,create:10,reporting-structure:30,compensation:10"));
+    private final File reportDirectory = new File(System.getProperty("loadtest.report-dir", "build/reports/loadtest"));
+
+    @LocalServerPort
+    private int port;
+
+    private RestTemplate restTemplate;
+    private String employeeUrl;
+    private String employeeIdUrl;
+    private String reportingStructureUrl;
+    private String compensationUrl;
+
+    // read, reporting-structure and compensation requests pick from these
+    private List<String> employeeIds;
+
+    @Before
+    public void setup() {
+        // A connection per worker - TestRestTemplate's default pool would cap the concurrency at a handful of connections
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(HttpClientBuilder.create()
+                .setMaxConnTotal(concurrency)
+                .setMaxConnPerRoute(concurrency)
+                .build());
+        restTemplate = new RestTemplate(requestFactory);
+
+        employeeUrl = "http://localhost:" + port + "/employee";
+        employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
+        reportingStructureUrl = employeeIdUrl + "/reporting-structure";
+        compensationUrl = employeeIdUrl + "/compensation";
+
+        employeeIds = createEmployees();
+    }
+
+    @Test
+    public void testRequestMix() throws Exception {
+        LOG.info("Load test: {} requests ({} warm-up) from {} workers, mix {}", requests, warmUpRequests, concurrency, mix);
+        run(warmUpRequests, null);
+
+        // Execute
+        Map<Operation, Result> results = new EnumMap<Operation, Result>(Operation.class);
+        for (Operation operation : mix.getWeights().keySet()) {
+            results.put(operation, new Result());
+        }
+        long start = System.nanoTime();
+        run(requests, results);
+        long elapsedNanos = System.nanoTime() - start;
+
+        // Assert
+        report(results, elapsedNanos);
+        for (Map.Entry<Operation, Result> result : results.entrySet()) {
+            assertEquals("Failed " + result.getKey().getLabel() + " requests", 0, result.getValue().errors.get());
+        }
+    }
+
+    // Bottom up, so every manager's reports exist when it is created - index 0 is the root
+    private List<String> createEmployees() {
+        String[] ids = new String[employees];
+        for (int i = employees - 1; i >= 0; i--) {
+            Employee employee = newEmployee(i);
+            List<Employee> directReports = new ArrayList<Employee>();
+            for (int report = i * BALANCED_FAN_OUT + 1; report <= i * BALANCED_FAN_OUT + BALANCED_FAN_OUT && report < employees; report++) {
+                directReports.add(Employee.fromEmployeeId(ids[report]));
+            }
+            employee.setDirectReports(directReports);
+            ids[i] = restTemplate.postForObject(employeeUrl, employee, Employee.class).getEmployeeId();
+
+            restTemplate.postForObject(compensationUrl, newCompensation(i), Compensation.class, ids[i]);
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(ids));
+    }
+
+    private void run(int count, Map<Operation, Result> results) throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(count);
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            workers.execute(() -> {
+                Random random = ThreadLocalRandom.current();
+                while (remaining.getAndDecrement() > 0) {
+                    Operation operation = mix.next(random);
+                    long start = System.nanoTime();
+                    boolean succeeded = send(operation, random, created);
+                    long elapsedNanos = System.nanoTime() - start;
+                    if (results != null) {
+                        results.get(operation).record(elapsedNanos, succeeded);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private boolean send(Operation operation, Random random, AtomicInteger created) {
+        String employeeId = employeeIds.get(random.nextInt(employeeIds.size()));
+        try {
+            switch (operation) {
+                case READ:
+                    return restTemplate.getForEntity(employeeIdUrl, String.class, employeeId).getStatusCode().is2xxSuccessful();
+                case CREATE:
+                    return restTemplate.postForEntity(employeeUrl, newEmployee(employees + created.getAndIncrement()), String.class)
+                            .getStatusCode().is2xxSuccessful();
+                case REPORTING_STRUCTURE:
+                    return restTemplate.getForEntity(reportingStructureUrl, String.class, employeeId).getStatusCode().is2xxSuccessful();
+                default:
+                    return restTemplate.getForEntity(compensationUrl, String.class, employeeId).getStatusCode().is2xxSuccessful();
+            }
+        } catch (RestClientException e) {
+            LOG.debug("{} request failed", operation.getLabel(), e);
+            return false;
+        }
+    }
+
+    // Log table plus build/reports/loadtest/summary.json and one HdrHistogram percentile distribution (.hgrm, ms) per operation
+    private void report(Map<Operation, Result> results, long elapsedNanos) throws IOException {
+        reportDirectory.mkdirs();
+        double elapsedSeconds = elapsedNanos / 1e9;
+
+        Histogram all = new Histogram(3);
+        Map<String, Object> operations = new LinkedHashMap<String, Object>();
+        for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+            Result result = entry.getValue();
+            all.add(result.latencies);
+            operations.put(entry.getKey().getLabel(), summarize(result.latencies, result.errors.get(), elapsedSeconds));
+            writePercentiles(entry.getKey().getLabel(), result.latencies);
+        }
+        Map<String, Object> total = summarize(all, 0, elapsedSeconds);
+        writePercentiles("all", all);
+
+        Map<String, Object> settings = new LinkedHashMap<String, Object>();
+        settings.put("concurrency", concurrency);
+        settings.put("requests", requests);
+        settings.put("warmUpRequests", warmUpRequests);
+        settings.put("employees", employees);
+        settings.put("mix", mix.toString());
+
+        Map<String, Object> summary = new LinkedHashMap<String, Object>();
+        summary.put("settings", settings);
+        summary.put("elapsedSeconds", elapsedSeconds);
+        summary.put("total", total);
+        summary.put("operations", operations);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(reportDirectory, "summary.json"), summary);
+
+        LOG.info(String.format("%-20s %8s %7s %10s %9s %9s %9s %9s %9s", "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<String, Object> operation : operations.entrySet()) {
+            LOG.info(format(operation.getKey(), operation.getValue()));
+        }
+        LOG.info(format("all", total));
+        LOG.info("Load test report written to [{}]", reportDirectory.getAbsolutePath());
+    }
+
+    private static Map<String, Object> summarize(Histogram latencies, long errors, double elapsedSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<String, Object>();
+        summary.put("count", latencies.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("requestsPerSecond", latencies.getTotalCount() / elapsedSeconds);
+        summary.put("p50Millis", latencies.getValueAtPercentile(50) / NANOS_PER_MILLI);
+        summary.put("p90Millis", latencies.getValueAtPercentile(90) / NANOS_PER_MILLI);
+        summary.put("p99Millis", latencies.getValueAtPercentile(99) / NANOS_PER_MILLI);
+        summary.put("p999Millis", latencies.getValueAtPercentile(99.9) / NANOS_PER_MILLI);
+        summary.put("maxMillis", latencies.getMaxValue() / NANOS_PER_MILLI);
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String format(String name, Object summary) {
+        Map<String, Object> values = (Map<String, Object>) summary;
+        return String.format("%-20s %8d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f", name,
+                values.get("count"), values.get("errors"), values.get("requestsPerSecond"),
+                values.get("p50Millis"), values.get("p90Millis"), values.get("p99Millis"), values.get("p999Millis"), values.get("maxMillis"));
+    }
+
+    private void writePercentiles(String name, Histogram latencies) throws IOException {
+        try (PrintStream output = new PrintStream(new FileOutputStream(new File(reportDirectory, name + ".hgrm")), false, "UTF-8")) {
+            latencies.outputPercentileDistribution(output, NANOS_PER_MILLI);
+        }
+    }
+
+    private static Employee newEmployee(int index) {
+        Employee employee = new Employee();
+        employee.setFirstName("Load");
+        employee.setLastName("Test " + index);
+        employee.setPosition("Developer");
+        employee.setDepartment("Load Test");
+        return employee;
+    }
+
+    private static Compensation newCompensation(int index) {
+        Compensation compensation = new Compensation();
+        compensation.setSalary(new BigDecimal(50000 + index * 100));
+        compensation.setEffectiveDate(LocalDate.of(2024, 1, 1));
+        return compensation;
+    }
+
+    // Latencies of the successful requests (ns, auto-resizing, 3 significant digits) and the failure count of one operation
+    private static class Result {
+        private final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long elapsedNanos, boolean succeeded) {
+            if (succeeded) {
+                latencies.recordValue(elapsedNanos);
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mindex.challenge.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+// Weighted choice of the next request, parsed from e.g. "read:50,create:10,reporting-structure:30,compensation:10"
+public class RequestMix {
+
+    public enum Operation {
+        READ("read"),
+        CREATE("create"),
+        REPORTING_STRUCTURE("reporting-structure"),
+        COMPENSATION("compensation");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        static Operation fromLabel(String label) {
+            for (Operation operation : values()) {
+                if (operation.label.equals(label)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation [" + label + "] in request mix");
+        }
+    }
+
+    private final Map<Operation, Integer> weights = new EnumMap<Operation, Integer>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    public RequestMix(String mix) {
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Request mix entries are operation:weight, got [" + entry + "]");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in request mix [" + entry + "]");
+            }
+            weights.merge(Operation.fromLabel(parts[0].trim()), weight, Integer::sum);
+        }
+
+        operations = weights.keySet().toArray(new Operation[0]);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Request mix [" + mix + "] has no weight");
+        }
+        totalWeight = total;
+    }
+
+    public Operation next(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    public Map<Operation, Integer> getWeights() {
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
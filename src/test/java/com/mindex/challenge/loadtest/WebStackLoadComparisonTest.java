@@ -0,0 +1,101 @@
+package com.mindex.challenge.loadtest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.config.ReactiveMongoConfig;
+import com.mindex.challenge.config.VirtualThreadConfig;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+// The same burst of reporting-structure requests against the servlet stack on Tomcat's platform thread pool, the servlet
+// stack on virtual threads and the reactive stack, each in its own application - logs throughput, latency and threads
+// Every stack does the same work per request: the subtree hydrated from Mongo and its reports counted with GRAPH_LOOKUP,
+// so each request waits on Mongo round trips. The servlet stacks run without the employee cache (the reactive stack never
+// goes through it), otherwise they would hydrate from memory after the warm-up.
+public class WebStackLoadComparisonTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WebStackLoadComparisonTest.class);
+
+    private static final String JOHN_LENNON = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    private static final int WARM_UP_REQUESTS = 200;
+    private static final int REQUESTS = 2000;
+    // well above Tomcat's 200 platform threads
+    private static final int CONCURRENCY = 1000;
+
+    @Test
+    public void testWebStacksUnderBurstLoad() {
+        benchmark("platform threads", new String[0]);
+        benchmark("virtual threads", new String[] { VirtualThreadConfig.VIRTUAL_THREADS_PROFILE });
+        benchmark("reactive", new String[] { ReactiveMongoConfig.REACTIVE_PROFILE });
+    }
+
+    private void benchmark(String name, String[] profiles) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("load-comparison")
+                .maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeApplication.class)
+                .profiles(profiles)
+                // as arguments so they win over application.properties - per request debug logging would dominate the measurement
+                // and a size of 0 keeps nothing in the employee cache
+                .run("--server.port=0", "--logging.level.com.mindex=INFO", "--employee.cache.maximum-size=0")) {
+            WebClient webClient = WebClient.builder()
+                    .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                    .build();
+            fire(webClient, WARM_UP_REQUESTS);
+
+            // Execute
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            long start = System.nanoTime();
+            long[] latencies = fire(webClient, REQUESTS);
+            long elapsedNanos = System.nanoTime() - start;
+
+            // Assert - fire() counts only successful responses
+            assertEquals(REQUESTS, latencies.length);
+            Arrays.sort(latencies);
+            LOG.info("{}: {} reporting-structure requests ({} concurrent) in {} ms - {} requests/s, p50 {} ms, p99 {} ms, peak platform threads {}",
+                    name, REQUESTS, CONCURRENCY, elapsedNanos / 1000000, (long) (REQUESTS * 1e9 / elapsedNanos),
+                    latencies[latencies.length / 2] / 1000000.0, latencies[latencies.length * 99 / 100] / 1000000.0,
+                    threads.getPeakThreadCount());
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    // Latencies (ns) of the successful requests
+    private long[] fire(WebClient webClient, int requests) {
+        AtomicInteger succeeded = new AtomicInteger();
+        long[] latencies = new long[requests];
+        Flux.range(0, requests)
+                .flatMap(i -> {
+                    long start = System.nanoTime();
+                    return webClient.get().uri("/employee/{id}/reporting-structure?strategy=GRAPH_LOOKUP", JOHN_LENNON)
+                            .retrieve()
+                            .bodyToMono(String.class)
+                            .doOnNext(body -> latencies[succeeded.getAndIncrement()] = System.nanoTime() - start)
+                            .onErrorResume(e -> Mono.empty());
+                }, CONCURRENCY)
+                .blockLast();
+
+        return Arrays.copyOf(latencies, succeeded.get());
+    }
+}
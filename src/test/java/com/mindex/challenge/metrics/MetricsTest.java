@@ -0,0 +1,116 @@
+package com.mindex.challenge.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.QueryTrace;
+import com.mindex.challenge.data.RequestTrace;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// tests only get an in-memory registry unless asked for the configured one (Prometheus)
+@AutoConfigureMetrics
+public class MetricsTest {
+
+    private static final String JOHN_LENNON = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    @After
+    public void resetCounters() {
+        MongoRequestCounters.reset();
+    }
+
+    @Test
+    public void testHydratedReadCountsDbRefResolutions() {
+        // Execute - John's subtree is Paul, Ringo and Ringo's reports Pete and George
+        Employee john = employeeRepository.findByEmployeeId(JOHN_LENNON);
+
+        // Assert
+        assertEquals(2, john.getDirectReports().size());
+        assertEquals(4, MongoRequestCounters.dbRefResolutions());
+        assertTrue(MongoRequestCounters.commands() >= 2);
+    }
+
+    @Test
+    public void testPrometheusScrape() {
+        // Arrange - a Breadth First Search over John's hydrated subtree
+        restTemplate.getForEntity("http://localhost:" + port + "/employee/{id}/reporting-structure?strategy=BFS", String.class, JOHN_LENNON);
+
+        // Execute
+        String scrape = restTemplate.getForObject("http://localhost:" + port + "/actuator/prometheus", String.class);
+
+        // Assert - the employee and its four reports were visited
+        assertTrue(scrape.contains("employee_reports_traversal_seconds_count{strategy=\"BFS\",}"));
+        assertTrue(scrape.contains("employee_reports_traversal_nodes_employees_bucket{strategy=\"BFS\",le=\"5.0\",}"));
+        assertTrue(scrape.contains("mongodb_driver_commands_seconds_count{command=\"find\",status=\"success\",}"));
+    }
+
+    @Test
+    public void testDiagnosticsTraceHydratedRead() {
+        // Arrange - a manager with one report, never read before so the read goes to Mongo
+        Employee report = restTemplate.postForObject("http://localhost:" + port + "/employee", newEmployee("Report"), Employee.class);
+        Employee manager = newEmployee("Manager");
+        manager.setDirectReports(Collections.singletonList(Employee.fromEmployeeId(report.getEmployeeId())));
+        String managerId = restTemplate.postForObject("http://localhost:" + port + "/employee", manager, Employee.class).getEmployeeId();
+
+        // Execute - over the same pooled connection, so the read's trace is published before the next request is served
+        restTemplate.getForObject("http://localhost:" + port + "/employee/{id}?hydrate=true", Employee.class, managerId);
+        RequestTrace[] traces = restTemplate.getForObject("http://localhost:" + port + "/admin/diagnostics?limit=1024", RequestTrace[].class);
+
+        // Assert
+        RequestTrace read = Arrays.stream(traces)
+                .filter(trace -> trace.getUri().equals("/employee/" + managerId + "?hydrate=true"))
+                .findFirst().get();
+        assertEquals("GET", read.getMethod());
+        assertEquals(200, read.getStatus());
+        // the manager, then their level of reports in one $in query - no DBRef fetched one by one
+        assertEquals(0, read.getDbRefResolutions());
+        assertTrue(read.getCommands() >= 2);
+        assertTrue(hasQuery(read, QueryTrace.REPOSITORY, "EmployeeRepository.findHierarchyByEmployeeId"));
+        assertTrue(hasQuery(read, QueryTrace.COMMAND, "find Employee"));
+        assertFalse(hasQuery(read, QueryTrace.DBREF, "Employee"));
+
+        for (int i = 1; i < traces.length; i++) {
+            assertTrue(traces[i - 1].getDurationMicros() >= traces[i].getDurationMicros());
+        }
+    }
+
+    private static boolean hasQuery(RequestTrace trace, String type, String name) {
+        return trace.getQueries().stream().anyMatch(query -> query.getType().equals(type) && query.getName().equals(name));
+    }
+
+    private static Employee newEmployee(String lastName) {
+        Employee employee = new Employee();
+        employee.setFirstName("Traced");
+        employee.setLastName(lastName);
+        employee.setPosition("Developer");
+        employee.setDepartment("Engineering");
+        return employee;
+    }
+}
@@ -0,0 +1,44 @@
+package com.mindex.challenge.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mindex.challenge.data.RequestTrace;
+
+public class RequestTraceBufferTest {
+
+    private RequestTraceBuffer requestTraceBuffer;
+
+    @Before
+    public void setup() {
+        requestTraceBuffer = new RequestTraceBuffer();
+        ReflectionTestUtils.setField(requestTraceBuffer, "capacity", 4);
+        requestTraceBuffer.init();
+    }
+
+    @Test
+    public void testSlowestOfTheMostRecentTraces() {
+        // Arrange - ten traces into four slots, the slowest (900) long overwritten
+        long[] durations = { 900, 100, 200, 300, 400, 500, 50, 700, 60, 70 };
+        for (long duration : durations) {
+            RequestTrace trace = new RequestTrace();
+            trace.setDurationMicros(duration);
+            requestTraceBuffer.add(trace);
+        }
+
+        // Execute
+        List<RequestTrace> slowest = requestTraceBuffer.getSlowest(3);
+
+        // Assert - only 50, 700, 60 and 70 are still buffered
+        assertEquals(3, slowest.size());
+        assertEquals(700, slowest.get(0).getDurationMicros());
+        assertEquals(70, slowest.get(1).getDurationMicros());
+        assertEquals(60, slowest.get(2).getDurationMicros());
+        assertEquals(4, requestTraceBuffer.getSlowest(10).size());
+    }
+}
@@ -1,13 +1,23 @@
 package com.mindex.challenge.service.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.intThat;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -16,19 +26,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.data.BatchCreateResult;
+import com.mindex.challenge.data.CacheStatistics;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.CompensationHistory;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.EmployeePage;
+import com.mindex.challenge.data.EmployeeSummary;
+import com.mindex.challenge.data.OrgCost;
 import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.index.OrgChartConsistencyChecker;
+import com.mindex.challenge.index.OrgChartIndex;
 import com.mindex.challenge.service.EmployeeService;
+import com.mindex.challenge.service.ReportTraversalStrategy;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -47,6 +70,12 @@ public class EmployeeServiceImplTest {
     
     @Autowired
     private CompensationRepository compensationRepository;
+    
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     @LocalServerPort
     private int port;
@@ -253,4 +282,608 @@ public class EmployeeServiceImplTest {
     	assertEquals(testCompensation.getSalary(), resultCompensation.getSalary());
     	assertEquals(testCompensation.getEffectiveDate(), resultCompensation.getEffectiveDate());
     }
+    
+    @Test
+    public void testGraphLookupMatchesBreadthFirstSearch() { 
+    	// Arrange - every employee of the bootstrap dataset
+    	String[] bootstrapEmployeeIds = {
+    			"16a596ae-edd3-4847-99fe-c4518e82c86f",
+    			"b7839309-3348-463b-a7e3-5de1c168beb3",
+    			"03aa1462-ffa9-4978-901b-7c001562cf6f",
+    			"62c1084e-6e34-4630-93fd-9153afb65309",
+    			"c0c2293d-16bd-4603-8e08-638a9d18b22c"
+    	};
+    	
+    	for (String employeeId : bootstrapEmployeeIds) {
+    		Employee employee = employeeService.read(employeeId);
+    		
+    		// Execute
+    		ReportingStructure bfsResult = employeeService.readReports(employee, ReportTraversalStrategy.BFS);
+    		ReportingStructure graphLookupResult = employeeService.readReports(employee, ReportTraversalStrategy.GRAPH_LOOKUP);
+    		ReportingStructure indexResult = employeeService.readReports(employee, ReportTraversalStrategy.INDEX);
+    		
+    		// Assert
+    		assertEquals(bfsResult.getNumberOfReports(), graphLookupResult.getNumberOfReports());
+    		assertEquals(bfsResult.getNumberOfReports(), indexResult.getNumberOfReports());
+    	}
+    }
+    
+    @Test
+    public void testGraphLookupHonorsMaxDepth() { 
+    	// Arrange
+    	String testEmployeeId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    	
+    	// Execute
+    	List<String> directReportIds = employeeRepository.findReportIdsByEmployeeId(testEmployeeId, 0);
+    	List<String> allReportIds = employeeRepository.findReportIdsByEmployeeId(testEmployeeId, null);
+    	
+    	// Assert - Paul and Ringo only, then Pete and George as well
+    	assertEquals(2, directReportIds.size());
+    	assertEquals(4, allReportIds.size());
+    }
+    
+    @Test
+    public void testReadEmployeeReturnsDirectReportIdsUnlessHydrated() { 
+    	// Arrange
+    	String testEmployeeId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    	
+    	// Execute
+    	EmployeeSummary summary = restTemplate.getForEntity(employeeIdUrl, EmployeeSummary.class, testEmployeeId).getBody();
+    	Employee hydratedEmployee = restTemplate.getForEntity(employeeIdUrl + "?hydrate=true", Employee.class, testEmployeeId).getBody();
+    	
+    	// Assert - ids only by default, the nested subtree only on request
+    	assertEquals("John", summary.getFirstName());
+    	assertEquals(2, summary.getDirectReports().size());
+    	assertEquals("03aa1462-ffa9-4978-901b-7c001562cf6f", summary.getDirectReports().get(1));
+    	assertEquals("Ringo", hydratedEmployee.getDirectReports().get(1).getFirstName());
+    	assertEquals("Pete", hydratedEmployee.getDirectReports().get(1).getDirectReports().get(0).getFirstName());
+    }
+    
+    @Test
+    public void testUpdateEmployeeAcceptsDirectReportIds() { 
+    	// Arrange - create a manager and a report, then PUT back the id-only representation with the report added
+    	Employee testEmployee = new Employee();
+    	testEmployee.setFirstName("Brian");
+    	testEmployee.setLastName("Epstein");
+    	Employee createdEmployee = restTemplate.postForEntity(employeeUrl, testEmployee, Employee.class).getBody();
+    	
+    	Employee testReportEmployee = new Employee();
+    	testReportEmployee.setFirstName("Mal");
+    	testReportEmployee.setLastName("Evans");
+    	Employee createdReportEmployee = restTemplate.postForEntity(employeeUrl, testReportEmployee, Employee.class).getBody();
+    	
+    	EmployeeSummary summary = restTemplate.getForEntity(employeeIdUrl, EmployeeSummary.class, createdEmployee.getEmployeeId()).getBody();
+    	summary.getDirectReports().add(createdReportEmployee.getEmployeeId());
+    	
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+    	
+    	// Execute
+    	Employee updatedEmployee = restTemplate.exchange(employeeIdUrl,
+    			HttpMethod.PUT,
+    			new HttpEntity<EmployeeSummary>(summary, headers),
+    			Employee.class,
+    			summary.getEmployeeId()).getBody();
+    	
+    	// Assert
+    	assertEquals(1, updatedEmployee.getDirectReports().size());
+    	assertEquals(createdReportEmployee.getEmployeeId(), updatedEmployee.getDirectReports().get(0).getEmployeeId());
+    	assertEquals(1, employeeService.readSummary(summary.getEmployeeId()).getDirectReports().size());
+    }
+    
+    @Test
+    public void testReadReportingStructurePagesThroughSubtree() { 
+    	// Arrange
+    	String testEmployeeId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    	List<String> pagedReportIds = new ArrayList<String>();
+    	String cursor = "";
+    	
+    	// Execute - one report per page until no cursor comes back
+    	while (cursor != null) {
+    		ReportingStructure page = restTemplate.getForEntity(reportingStructureUrl + "?pageSize=1&cursor=" + cursor,
+    				ReportingStructure.class, testEmployeeId).getBody();
+    		
+    		assertEquals(4, page.getNumberOfReports());
+    		assertEquals(1, page.getReports().size());
+    		pagedReportIds.add(page.getReports().get(0).getEmployeeId());
+    		cursor = page.getNextCursor();
+    	}
+    	
+    	// Assert - Breadth First order
+    	assertEquals(4, pagedReportIds.size());
+    	assertEquals("b7839309-3348-463b-a7e3-5de1c168beb3", pagedReportIds.get(0));
+    	assertEquals("03aa1462-ffa9-4978-901b-7c001562cf6f", pagedReportIds.get(1));
+    }
+    
+    @Test
+    public void testReadReportingStructureHonorsMaxDepth() { 
+    	// Arrange
+    	String testEmployeeId = "16a596ae-edd3-4847-99fe-c4518e82c86f";
+    	
+    	// Execute
+    	ReportingStructure readReportingStructure = restTemplate.getForEntity(reportingStructureUrl + "?maxDepth=1",
+    			ReportingStructure.class, testEmployeeId).getBody();
+    	
+    	// Assert - direct reports only, ids of the next level still listed, subtree not hydrated
+    	assertEquals(4, readReportingStructure.getNumberOfReports());
+    	assertEquals(2, readReportingStructure.getReports().size());
+    	assertEquals(null, readReportingStructure.getNextCursor());
+    	assertEquals("Ringo", readReportingStructure.getReports().get(1).getFirstName());
+    	assertEquals(2, readReportingStructure.getReports().get(1).getDirectReports().size());
+    	assertEquals(null, readReportingStructure.getEmployee().getDirectReports().get(1).getFirstName());
+    }
+    
+    @Test
+    public void testReadReportingStructureRejectsBadPageSize() { 
+    	// Execute
+    	HttpStatus readStatus = restTemplate.getForEntity(reportingStructureUrl + "?pageSize=0",
+    			ReportingStructure.class, "16a596ae-edd3-4847-99fe-c4518e82c86f").getStatusCode();
+    	
+    	// Assert
+    	assertEquals(HttpStatus.BAD_REQUEST, readStatus);
+    }
+    
+    @Test
+    public void testCreateBatchInsertsEveryEmployee() { 
+    	// Arrange - five employees written in batches of two
+    	List<Employee> testEmployees = new ArrayList<Employee>();
+    	for (int i = 0; i < 5; i++) {
+    		Employee testEmployee = new Employee();
+    		testEmployee.setFirstName("Batch" + i);
+    		testEmployee.setLastName("Employee");
+    		testEmployee.setDepartment("Engineering");
+    		testEmployees.add(testEmployee);
+    	}
+    	
+    	// Execute
+    	ResponseEntity<BatchCreateResult> response = restTemplate.postForEntity(
+    			"http://localhost:" + port + "/employees/batch?batchSize=2", testEmployees, BatchCreateResult.class);
+    	BatchCreateResult result = response.getBody();
+    	
+    	// Assert - per-item results in request order, every employee readable
+    	assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    	assertEquals(5, result.getCreated());
+    	assertEquals(0, result.getFailed());
+    	assertEquals(2, result.getBatchSize());
+    	for (int i = 0; i < 5; i++) {
+    		BatchCreateResult.Item item = result.getItems().get(i);
+    		assertEquals(i, item.getIndex());
+    		assertEquals(BatchCreateResult.CREATED, item.getStatus());
+    		assertEquals("Batch" + i, employeeService.read(item.getEmployeeId()).getFirstName());
+    	}
+    }
+    
+    @Test
+    public void testCreateBatchReportsFailedItems() { 
+    	// Arrange - an empty entry between two employees
+    	Employee testEmployee = new Employee();
+    	testEmployee.setFirstName("Neil");
+    	testEmployee.setLastName("Aspinall");
+    	List<Employee> testEmployees = new ArrayList<Employee>();
+    	testEmployees.add(testEmployee);
+    	testEmployees.add(null);
+    	testEmployees.add(new Employee());
+    	
+    	// Execute
+    	ResponseEntity<BatchCreateResult> response = restTemplate.postForEntity(
+    			"http://localhost:" + port + "/employees/batch", testEmployees, BatchCreateResult.class);
+    	
+    	// Assert
+    	assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+    	assertEquals(2, response.getBody().getCreated());
+    	assertEquals(BatchCreateResult.FAILED, response.getBody().getItems().get(1).getStatus());
+    }
+
+    @Test
+    public void testCachedManagerSeesUpdatedReport() {
+    	// Arrange - a manager with one report, read once so the hydrated manager is cached
+    	Employee testReportEmployee = new Employee();
+    	testReportEmployee.setFirstName("Neil");
+    	testReportEmployee.setLastName("Aspinall");
+    	Employee createdReportEmployee = employeeService.create(testReportEmployee);
+    	
+    	Employee testEmployee = new Employee();
+    	testEmployee.setFirstName("George");
+    	testEmployee.setLastName("Martin");
+    	List<Employee> directReports = new ArrayList<Employee>();
+    	directReports.add(Employee.fromEmployeeId(createdReportEmployee.getEmployeeId()));
+    	testEmployee.setDirectReports(directReports);
+    	Employee createdEmployee = employeeService.create(testEmployee);
+    	
+    	String statisticsUrl = "http://localhost:" + port + "/admin/cache/employees";
+    	employeeService.read(createdEmployee.getEmployeeId());
+    	CacheStatistics before = restTemplate.getForEntity(statisticsUrl, CacheStatistics.class).getBody();
+    	
+    	// Execute - a cache hit, then a write to the report
+    	Employee cachedEmployee = employeeService.read(createdEmployee.getEmployeeId());
+    	createdReportEmployee.setLastName("Aspinall Jr");
+    	employeeService.update(createdReportEmployee);
+    	Employee reloadedEmployee = employeeService.read(createdEmployee.getEmployeeId());
+    	CacheStatistics after = restTemplate.getForEntity(statisticsUrl, CacheStatistics.class).getBody();
+    	
+    	// Assert - the report's write invalidated the manager's cached subtree
+    	assertEquals("Aspinall", cachedEmployee.getDirectReports().get(0).getLastName());
+    	assertEquals("Aspinall Jr", reloadedEmployee.getDirectReports().get(0).getLastName());
+    	assertEquals(before.getHitCount() + 1, after.getHitCount());
+    	assertEquals(before.getMissCount() + 1, after.getMissCount());
+    	assertEquals(before.getLoadCount() + 1, after.getLoadCount());
+    }
+
+    @Test
+    public void testConcurrentCompensationCreatesAllowOnlyOne() throws Exception {
+    	// Arrange - many racing creates for one fresh employee
+    	Employee testEmployee = new Employee();
+    	testEmployee.setFirstName("Derek");
+    	testEmployee.setLastName("Taylor");
+    	Employee createdEmployee = employeeService.create(testEmployee);
+    	
+    	ExecutorService executor = Executors.newFixedThreadPool(16);
+    	List<Callable<HttpStatus>> creates = new ArrayList<Callable<HttpStatus>>();
+    	for (int i = 0; i < 64; i++) {
+    		creates.add(() -> {
+    			try {
+    				employeeService.createCompensation(new Compensation(null, new BigDecimal("90000"), LocalDate.now(), createdEmployee));
+    				return HttpStatus.CREATED;
+    			} catch (ResponseStatusException e) {
+    				return e.getStatus();
+    			}
+    		});
+    	}
+    	
+    	// Execute
+    	int created = 0;
+    	int conflicts = 0;
+    	try {
+    		for (Future<HttpStatus> status : executor.invokeAll(creates)) {
+    			if (status.get() == HttpStatus.CREATED) {
+    				created++;
+    			} else if (status.get() == HttpStatus.CONFLICT) {
+    				conflicts++;
+    			}
+    		}
+    	} finally {
+    		executor.shutdown();
+    	}
+    	
+    	// Assert - exactly one winner, everyone else a 409
+    	assertEquals(1, created);
+    	assertEquals(63, conflicts);
+    	assertEquals(createdEmployee.getEmployeeId(), employeeService.readCompensation(createdEmployee.getEmployeeId()).getEmployee().getEmployeeId());
+    }
+    
+    @Test
+    public void testCompensationAsOfDate() {
+    	// Arrange - three salary changes, posted out of date order
+    	Employee testEmployee = new Employee();
+    	testEmployee.setFirstName("Allen");
+    	testEmployee.setLastName("Klein");
+    	String employeeId = employeeService.create(testEmployee).getEmployeeId();
+    	String historyUrl = compensationUrl + "/history";
+    	
+    	restTemplate.postForEntity(historyUrl, new CompensationHistory(null, null, new BigDecimal("60000"), LocalDate.of(2019, 1, 1)), CompensationHistory.class, employeeId);
+    	restTemplate.postForEntity(historyUrl, new CompensationHistory(null, null, new BigDecimal("80000"), LocalDate.of(2021, 1, 1)), CompensationHistory.class, employeeId);
+    	HttpStatus createStatus = restTemplate.postForEntity(historyUrl, 
+    			new CompensationHistory(null, null, new BigDecimal("70000"), LocalDate.of(2020, 1, 1)), CompensationHistory.class, employeeId).getStatusCode();
+    	
+    	// Execute
+    	CompensationHistory asOfMidYear = restTemplate.getForEntity(compensationUrl + "?asOf=2020-06-30", CompensationHistory.class, employeeId).getBody();
+    	CompensationHistory asOfChangeDay = restTemplate.getForEntity(compensationUrl + "?asOf=2021-01-01", CompensationHistory.class, employeeId).getBody();
+    	HttpStatus beforeFirstStatus = restTemplate.getForEntity(compensationUrl + "?asOf=2018-12-31", String.class, employeeId).getStatusCode();
+    	HttpStatus duplicateStatus = restTemplate.postForEntity(historyUrl, 
+    			new CompensationHistory(null, null, new BigDecimal("1"), LocalDate.of(2020, 1, 1)), String.class, employeeId).getStatusCode();
+    	CompensationHistory[] history = restTemplate.getForEntity(historyUrl, CompensationHistory[].class, employeeId).getBody();
+    	
+    	// Assert
+    	assertEquals(HttpStatus.CREATED, createStatus);
+    	assertEquals(0, new BigDecimal("70000").compareTo(asOfMidYear.getSalary()));
+    	assertEquals(LocalDate.of(2020, 1, 1), asOfMidYear.getEffectiveDate());
+    	assertEquals(employeeId, asOfMidYear.getEmployeeId());
+    	assertEquals(0, new BigDecimal("80000").compareTo(asOfChangeDay.getSalary()));
+    	assertEquals(HttpStatus.NOT_FOUND, beforeFirstStatus);
+    	assertEquals(HttpStatus.CONFLICT, duplicateStatus);
+    	assertEquals(3, history.length);
+    	assertEquals(LocalDate.of(2019, 1, 1), history[0].getEffectiveDate());
+    	assertEquals(LocalDate.of(2021, 1, 1), history[2].getEffectiveDate());
+    }
+
+    @Test
+    public void testOrgCostSumsSubtreeSalaries() {
+    	// Arrange - manager -> (lead -> engineer, intern), lead and engineer compensated, the intern not
+    	Employee engineer = createEmployee("Tony", "Sheridan", null);
+    	Employee intern = createEmployee("Tony", "Barrow", null);
+    	Employee lead = createEmployee("Bert", "Kaempfert", engineer, intern);
+    	Employee manager = createEmployee("Dick", "James", lead);
+    	employeeService.createCompensation(new Compensation(null, new BigDecimal("120000.50"), LocalDate.now(), lead));
+    	employeeService.createCompensation(new Compensation(null, new BigDecimal("80000.25"), LocalDate.now(), engineer));
+    	employeeService.createCompensation(new Compensation(null, new BigDecimal("999999"), LocalDate.now(), manager));
+    	
+    	// Execute
+    	OrgCost orgCost = restTemplate.getForEntity(employeeIdUrl + "/org-cost", OrgCost.class, manager.getEmployeeId()).getBody();
+    	HttpStatus badIdStatus = restTemplate.getForEntity(employeeIdUrl + "/org-cost", String.class, "Bad id").getStatusCode();
+    	
+    	// Assert - the manager's own salary is not part of their org's cost
+    	assertEquals(3, orgCost.getNumberOfReports());
+    	assertEquals(2, orgCost.getCompensatedReports());
+    	assertEquals(new BigDecimal("200000.75"), orgCost.getTotalSalary());
+    	assertEquals(HttpStatus.NOT_FOUND, badIdStatus);
+    }
+    
+    private Employee createEmployee(String firstName, String lastName, Employee... directReports) {
+    	Employee employee = new Employee();
+    	employee.setFirstName(firstName);
+    	employee.setLastName(lastName);
+    	if (directReports != null) {
+    		List<Employee> reports = new ArrayList<Employee>();
+    		for (Employee directReport : directReports) {
+    			reports.add(Employee.fromEmployeeId(directReport.getEmployeeId()));
+    		}
+    		employee.setDirectReports(reports);
+    	}
+    	return employeeService.create(employee);
+    }
+
+    @Test
+    public void testConditionalGetsFollowSubtreeWrites() {
+    	// Arrange - manager -> lead -> engineer
+    	Employee engineer = createEmployee("Geoff", "Emerick", null);
+    	Employee lead = createEmployee("Norman", "Smith", engineer);
+    	Employee manager = createEmployee("Ron", "Richards", lead);
+    	String reportingStructureEtag = restTemplate.getForEntity(reportingStructureUrl, String.class, manager.getEmployeeId()).getHeaders().getETag();
+    	String employeeEtag = restTemplate.getForEntity(employeeIdUrl, String.class, manager.getEmployeeId()).getHeaders().getETag();
+    	
+    	// Execute - repeat reads, then a write two levels down
+    	ResponseEntity<String> unchangedStructure = conditionalGet(reportingStructureUrl, manager.getEmployeeId(), reportingStructureEtag);
+    	engineer.setPosition("Engineer II");
+    	employeeService.update(engineer);
+    	ResponseEntity<String> changedStructure = conditionalGet(reportingStructureUrl, manager.getEmployeeId(), reportingStructureEtag);
+    	ResponseEntity<String> unchangedEmployee = conditionalGet(employeeIdUrl, manager.getEmployeeId(), employeeEtag);
+    	
+    	// Assert - 304s carry no body, the subtree write changes only the reporting-structure ETag
+    	assertNotNull(reportingStructureEtag);
+    	assertEquals(HttpStatus.NOT_MODIFIED, unchangedStructure.getStatusCode());
+    	assertEquals(null, unchangedStructure.getBody());
+    	assertEquals(HttpStatus.OK, changedStructure.getStatusCode());
+    	assertNotNull(changedStructure.getBody());
+    	assertNotEquals(reportingStructureEtag, changedStructure.getHeaders().getETag());
+    	assertEquals(HttpStatus.NOT_MODIFIED, unchangedEmployee.getStatusCode());
+    }
+    
+    @Test
+    public void testConditionalGetOfCompensation() {
+    	// Arrange
+    	Employee testEmployee = createEmployee("Phil", "Spector", null);
+    	employeeService.createCompensation(new Compensation(null, new BigDecimal("75000"), LocalDate.now(), testEmployee));
+    	String etag = restTemplate.getForEntity(compensationUrl, String.class, testEmployee.getEmployeeId()).getHeaders().getETag();
+    	
+    	// Execute - the embedded employee changes after the first conditional GET
+    	ResponseEntity<String> response = conditionalGet(compensationUrl, testEmployee.getEmployeeId(), etag);
+    	Map<String, Object> position = new HashMap<String, Object>();
+    	position.put("position", "Producer");
+    	restTemplate.patchForObject(employeeIdUrl, position, EmployeeSummary.class, testEmployee.getEmployeeId());
+    	ResponseEntity<String> afterEmployeeUpdate = conditionalGet(compensationUrl, testEmployee.getEmployeeId(), etag);
+    	
+    	// Assert
+    	assertNotNull(etag);
+    	assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    	assertEquals(HttpStatus.OK, afterEmployeeUpdate.getStatusCode());
+    	assertNotEquals(etag, afterEmployeeUpdate.getHeaders().getETag());
+    	assertTrue(afterEmployeeUpdate.getBody().contains("Producer"));
+    }
+    
+    private ResponseEntity<String> conditionalGet(String url, String id, String etag) {
+    	HttpHeaders headers = new HttpHeaders();
+    	headers.setIfNoneMatch(etag);
+    	return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<Void>(headers), String.class, id);
+    }
+
+    @Test
+    public void testPatchWritesOnlySuppliedFields() {
+    	// Arrange - manager -> lead, plus an engineer to move in
+    	Employee lead = createEmployee("Klaus", "Voormann", null);
+    	Employee engineer = createEmployee("Astrid", "Kirchherr", null);
+    	Employee manager = createEmployee("Bill", "Harry", lead);
+    	
+    	Map<String, Object> positionOnly = new HashMap<String, Object>();
+    	positionOnly.put("position", "Director");
+    	Map<String, Object> newReports = new HashMap<String, Object>();
+    	newReports.put("directReports", Arrays.asList(lead.getEmployeeId(), engineer.getEmployeeId()));
+    	Map<String, Object> unknownField = new HashMap<String, Object>();
+    	unknownField.put("salary", "1000000");
+    	
+    	// Execute
+    	EmployeeSummary patched = restTemplate.patchForObject(employeeIdUrl, positionOnly, EmployeeSummary.class, manager.getEmployeeId());
+    	EmployeeSummary repatched = restTemplate.patchForObject(employeeIdUrl, newReports, EmployeeSummary.class, manager.getEmployeeId());
+    	ReportingStructure reportingStructure = restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, manager.getEmployeeId()).getBody();
+    	Employee hydrated = employeeService.read(manager.getEmployeeId());
+    	HttpStatus unknownFieldStatus = restTemplate.exchange(employeeIdUrl, HttpMethod.PATCH, new HttpEntity<Map<String, Object>>(unknownField), 
+    			String.class, manager.getEmployeeId()).getStatusCode();
+    	HttpStatus badIdStatus = restTemplate.exchange(employeeIdUrl, HttpMethod.PATCH, new HttpEntity<Map<String, Object>>(positionOnly), 
+    			String.class, "Bad id").getStatusCode();
+    	
+    	// Assert - other fields and the report list untouched by the first patch, index and cache follow the second
+    	assertEquals("Director", patched.getPosition());
+    	assertEquals("Harry", patched.getLastName());
+    	assertEquals(1, patched.getDirectReports().size());
+    	assertNotEquals(manager.getVersion(), patched.getVersion());
+    	assertEquals(2, repatched.getDirectReports().size());
+    	assertEquals(2, reportingStructure.getNumberOfReports());
+    	assertEquals("Director", hydrated.getPosition());
+    	assertEquals("Astrid", hydrated.getDirectReports().get(1).getFirstName());
+    	assertEquals(HttpStatus.BAD_REQUEST, unknownFieldStatus);
+    	assertEquals(HttpStatus.NOT_FOUND, badIdStatus);
+    }
+    
+    @Test
+    public void testPatchLeavesLargeReportListUntouched() {
+    	// Arrange - a manager with 200 direct reports
+    	List<Employee> reports = new ArrayList<Employee>();
+    	for (int i = 0; i < 200; i++) {
+    		Employee report = new Employee();
+    		report.setFirstName("Report");
+    		report.setLastName(String.valueOf(i));
+    		reports.add(report);
+    	}
+    	employeeService.createBatch(reports, null);
+    	Employee manager = createEmployee("Large", "Team", reports.toArray(new Employee[0]));
+    	EmployeeSummary before = employeeService.readSummary(manager.getEmployeeId());
+    	
+    	Map<String, Object> position = new HashMap<String, Object>();
+    	position.put("position", "Patched");
+    	
+    	// Execute - a one-field change, without sending the report list back
+    	EmployeeSummary patched = restTemplate.patchForObject(employeeIdUrl, position, EmployeeSummary.class, manager.getEmployeeId());
+    	EmployeeSummary after = employeeService.readSummary(manager.getEmployeeId());
+    	
+    	// Assert - the reports are still there, in order, and still report to the manager
+    	assertEquals("Patched", patched.getPosition());
+    	assertEquals("Patched", after.getPosition());
+    	assertEquals(before.getDirectReports(), after.getDirectReports());
+    	assertNotEquals(before.getVersion(), after.getVersion());
+    	assertEquals(200, restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, manager.getEmployeeId()).getBody().getNumberOfReports());
+    }
+
+    @Test
+    public void testExportStreamsEveryEmployeeAsNdjson() throws Exception {
+    	// Execute
+    	ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:" + port + "/employees/export", String.class);
+    	
+    	// Assert - one employee per line, directReports as ids
+    	assertEquals(HttpStatus.OK, response.getStatusCode());
+    	assertEquals("application/x-ndjson;charset=UTF-8", response.getHeaders().getContentType().toString());
+    	assertTrue(response.getBody().endsWith("\n"));
+    	String[] lines = response.getBody().split("\n");
+    	assertEquals(employeeRepository.count(), lines.length);
+    	
+    	ObjectMapper objectMapper = new ObjectMapper();
+    	EmployeeSummary john = null;
+    	for (String line : lines) {
+    		EmployeeSummary summary = objectMapper.readValue(line, EmployeeSummary.class);
+    		if ("16a596ae-edd3-4847-99fe-c4518e82c86f".equals(summary.getEmployeeId())) {
+    			john = summary;
+    		}
+    	}
+    	assertNotNull(john);
+    	assertEquals(Arrays.asList("b7839309-3348-463b-a7e3-5de1c168beb3", "03aa1462-ffa9-4978-901b-7c001562cf6f"), john.getDirectReports());
+    }
+
+    @Test
+    public void testEmployeesPageThroughDepartmentWithCursor() {
+    	// Arrange - five employees in a department of their own, two of them engineers
+    	String department = "Directory " + UUID.randomUUID();
+    	for (int i = 0; i < 5; i++) {
+    		Employee employee = new Employee();
+    		employee.setFirstName("Page");
+    		employee.setLastName("Employee " + i);
+    		employee.setDepartment(department);
+    		employee.setPosition(i % 2 == 0 ? "Manager" : "Engineer");
+    		employeeService.create(employee);
+    	}
+    	String employeesUrl = "http://localhost:" + port + "/employees?department={department}&pageSize=2";
+    	
+    	// Execute - follow nextCursor until it runs out
+    	List<EmployeePage> pages = new ArrayList<EmployeePage>();
+    	EmployeePage page = restTemplate.getForObject(employeesUrl, EmployeePage.class, department);
+    	pages.add(page);
+    	while (page.getNextCursor() != null) {
+    		page = restTemplate.getForObject(employeesUrl + "&cursor={cursor}", EmployeePage.class, department, page.getNextCursor());
+    		pages.add(page);
+    	}
+    	EmployeePage engineers = restTemplate.getForObject(employeesUrl + "&position=Engineer", EmployeePage.class, department);
+    	
+    	// Assert - every employee exactly once, in employeeId order
+    	assertEquals(3, pages.size());
+    	List<String> ids = new ArrayList<String>();
+    	for (EmployeePage result : pages) {
+    		for (EmployeeSummary summary : result.getEmployees()) {
+    			assertEquals(department, summary.getDepartment());
+    			ids.add(summary.getEmployeeId());
+    		}
+    	}
+    	assertEquals(5, ids.size());
+    	List<String> sortedIds = new ArrayList<String>(ids);
+    	sortedIds.sort(null);
+    	assertEquals(sortedIds, ids);
+    	
+    	assertEquals(2, engineers.getEmployees().size());
+    	assertEquals(null, engineers.getNextCursor());
+    	for (EmployeeSummary summary : engineers.getEmployees()) {
+    		assertEquals("Engineer", summary.getPosition());
+    	}
+    }
+
+    @Test
+    public void testHierarchyWritesRejectCyclesAndSecondManagers() {
+    	// Arrange - manager -> lead, plus an employee without reports
+    	Employee lead = createEmployee("Derek", "Taylor", null);
+    	Employee manager = createEmployee("Tony", "Barrow", lead);
+    	Employee other = createEmployee("Alistair", "Taylor", null);
+    	
+    	// PUT body only - nothing above the fixture gets written
+    	Employee leadManagingManager = new Employee();
+    	leadManagingManager.setEmployeeId(lead.getEmployeeId());
+    	leadManagingManager.setFirstName("Derek");
+    	leadManagingManager.setLastName("Taylor");
+    	leadManagingManager.setDirectReports(Arrays.asList(Employee.fromEmployeeId(manager.getEmployeeId())));
+    	Map<String, Object> secondManager = new HashMap<String, Object>();
+    	secondManager.put("directReports", Arrays.asList(lead.getEmployeeId()));
+    	Map<String, Object> selfReport = new HashMap<String, Object>();
+    	selfReport.put("directReports", Arrays.asList(other.getEmployeeId()));
+    	Employee firstClaim = new Employee();
+    	firstClaim.setDirectReports(Arrays.asList(Employee.fromEmployeeId(other.getEmployeeId())));
+    	Employee secondClaim = new Employee();
+    	secondClaim.setDirectReports(Arrays.asList(Employee.fromEmployeeId(other.getEmployeeId())));
+    	
+    	// Execute
+    	HttpStatus cycleStatus = restTemplate.exchange(employeeIdUrl, HttpMethod.PUT, new HttpEntity<Employee>(leadManagingManager),
+    			String.class, lead.getEmployeeId()).getStatusCode();
+    	HttpStatus secondManagerStatus = restTemplate.exchange(employeeIdUrl, HttpMethod.PATCH, new HttpEntity<Map<String, Object>>(secondManager),
+    			String.class, other.getEmployeeId()).getStatusCode();
+    	HttpStatus selfReportStatus = restTemplate.exchange(employeeIdUrl, HttpMethod.PATCH, new HttpEntity<Map<String, Object>>(selfReport),
+    			String.class, other.getEmployeeId()).getStatusCode();
+    	BatchCreateResult batch = restTemplate.postForEntity("http://localhost:" + port + "/employees/batch",
+    			Arrays.asList(firstClaim, secondClaim), BatchCreateResult.class).getBody();
+    	
+    	// Assert - nothing was written, and the first claim of the batch still went in
+    	assertEquals(HttpStatus.CONFLICT, cycleStatus);
+    	assertEquals(HttpStatus.CONFLICT, secondManagerStatus);
+    	assertEquals(HttpStatus.CONFLICT, selfReportStatus);
+    	assertEquals(1, batch.getCreated());
+    	assertEquals(BatchCreateResult.FAILED, batch.getItems().get(1).getStatus());
+    	assertEquals(0, employeeService.readSummary(lead.getEmployeeId()).getDirectReports().size());
+    	assertEquals(0, employeeService.readSummary(other.getEmployeeId()).getDirectReports().size());
+    	assertEquals(1, restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, manager.getEmployeeId())
+    			.getBody().getNumberOfReports());
+    	assertEquals(Arrays.asList(manager.getEmployeeId()), orgChartIndex.getManagers(lead.getEmployeeId()));
+    }
+    
+    @Test
+    public void testHydratedReadCutsOffCycleInStoredData() {
+    	// Arrange - a -> b -> a, written through the repository so the service checks are bypassed
+    	Employee a = createEmployee("Cycle", "A", null);
+    	Employee b = createEmployee("Cycle", "B", null);
+    	a.setDirectReports(Arrays.asList(Employee.fromEmployeeId(b.getEmployeeId())));
+    	employeeRepository.save(a);
+    	b.setDirectReports(Arrays.asList(Employee.fromEmployeeId(a.getEmployeeId())));
+    	employeeRepository.save(b);
+    	
+    	try {
+    		// Execute
+    		Employee hydrated = restTemplate.getForEntity(employeeIdUrl + "?hydrate=true", Employee.class, a.getEmployeeId()).getBody();
+    		ReportingStructure reportingStructure = restTemplate.getForEntity(reportingStructureUrl + "?strategy=BFS", ReportingStructure.class,
+    				a.getEmployeeId()).getBody();
+    		
+    		// Assert - a appears again below b as an id-only stub, and is not counted as its own report
+    		Employee stub = hydrated.getDirectReports().get(0).getDirectReports().get(0);
+    		assertEquals(a.getEmployeeId(), stub.getEmployeeId());
+    		assertEquals(null, stub.getFirstName());
+    		assertEquals(null, stub.getDirectReports());
+    		assertEquals(1, reportingStructure.getNumberOfReports());
+    	} finally {
+    		// leave a tree behind for the other tests - the maintained report counts can't follow a cycle, so they are recounted
+    		b.setDirectReports(null);
+    		employeeRepository.save(b);
+    		orgChartIndex.clear();
+    		OrgChartConsistencyChecker.load(mongoTemplate, orgChartIndex);
+    	}
+    }
 }
@@ -0,0 +1,29 @@
+package com.mindex.challenge.service.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class SalarySumTaskTest {
+
+    @Test
+    public void testForkJoinSumMatchesSequentialSum() {
+        // Arrange - enough salaries for several forks, with cents that must not be lost
+        List<BigDecimal> salaries = new ArrayList<BigDecimal>();
+        for (int i = 0; i < 250000; i++) {
+            salaries.add(new BigDecimal(50000 + i % 1000).add(new BigDecimal("0.01")));
+        }
+
+        // Execute
+        BigDecimal parallelTotal = ForkJoinPool.commonPool().invoke(new SalarySumTask(salaries, 0, salaries.size()));
+
+        // Assert
+        assertEquals(SalarySumTask.sum(salaries, 0, salaries.size()), parallelTotal);
+        assertEquals(new BigDecimal("12624877500.00"), parallelTotal);
+    }
+}